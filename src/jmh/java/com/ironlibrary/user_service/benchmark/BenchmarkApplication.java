@@ -0,0 +1,53 @@
+package com.ironlibrary.user_service.benchmark;
+
+import com.ironlibrary.user_service.UserServiceApplication;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.service.UserImportService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Arranque del servicio para los benchmarks: perfil de test (H2 en memoria),
+ * sin log de SQL y con un conjunto fijo de usuarios
+ */
+final class BenchmarkApplication {
+
+    static final int USER_COUNT = 1000;
+
+    private static final MembershipType[] TYPES = MembershipType.values();
+
+    private BenchmarkApplication() {
+    }
+
+    static ConfigurableApplicationContext start() {
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.SERVLET)
+                .run("--spring.jpa.show-sql=false",
+                        "--server.port=0",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.ironlibrary=WARN");
+        context.getBean(UserImportService.class).importUsers(users(USER_COUNT));
+        return context;
+    }
+
+    /**
+     * Usuarios de prueba con nombres, membresías y estados variados
+     */
+    static List<User> users(int count) {
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            User user = new User("Usuario Núñez " + i, "usuario" + i + "@email.com", TYPES[i % TYPES.length]);
+            user.setIsActive(i % 5 != 0);
+            user.setPhone("600" + String.format("%06d", i));
+            user.setAddress("Calle Mayor " + i);
+            users.add(user);
+        }
+        return users;
+    }
+}
@@ -0,0 +1,64 @@
+package com.ironlibrary.user_service.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+
+/**
+ * Endpoints de UserController a través de MockMvc (sin red), incluyendo
+ * el despacho de Spring MVC y la serialización de la respuesta
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserControllerBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private MockMvc mockMvc;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        mockMvc = MockMvcBuilders.webAppContextSetup((WebApplicationContext) context).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MvcResult getUserById() throws Exception {
+        return mockMvc.perform(get("/api/users/{id}", randomId())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult getUsersPage() throws Exception {
+        return mockMvc.perform(get("/api/users").param("limit", "20")).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult validateUser() throws Exception {
+        return mockMvc.perform(get("/api/users/{id}/validate", randomId())).andReturn();
+    }
+
+    @Benchmark
+    public MvcResult searchByName() throws Exception {
+        return mockMvc.perform(get("/api/users/search/name").param("name", "nunez " + (randomId() - 1))).andReturn();
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, BenchmarkApplication.USER_COUNT + 1);
+    }
+}
@@ -0,0 +1,43 @@
+package com.ironlibrary.user_service.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironlibrary.user_service.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialización y deserialización JSON de User con la configuración de Jackson de Spring
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserJsonBenchmark {
+
+    private ObjectMapper objectMapper;
+    private User user;
+    private String json;
+
+    @Setup
+    public void setUp() throws Exception {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        user = BenchmarkApplication.users(1).get(0);
+        user.setId(1L);
+        user.setVersion(3L);
+        json = objectMapper.writeValueAsString(user);
+    }
+
+    @Benchmark
+    public String serialize() throws Exception {
+        return objectMapper.writeValueAsString(user);
+    }
+
+    @Benchmark
+    public User deserialize() throws Exception {
+        return objectMapper.readValue(json, User.class);
+    }
+}
@@ -0,0 +1,41 @@
+package com.ironlibrary.user_service.benchmark;
+
+import com.ironlibrary.user_service.model.User;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reglas de préstamo de User sobre usuarios de todas las membresías
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserModelBenchmark {
+
+    private List<User> users;
+
+    @Setup
+    public void setUp() {
+        users = BenchmarkApplication.users(100);
+    }
+
+    @Benchmark
+    public void canBorrowBooks(Blackhole blackhole) {
+        for (User user : users) {
+            blackhole.consume(user.canBorrowBooks());
+        }
+    }
+
+    @Benchmark
+    public void getMaxBooksAllowed(Blackhole blackhole) {
+        for (User user : users) {
+            blackhole.consume(user.getMaxBooksAllowed());
+        }
+    }
+}
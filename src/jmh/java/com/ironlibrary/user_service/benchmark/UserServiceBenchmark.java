@@ -0,0 +1,76 @@
+package com.ironlibrary.user_service.benchmark;
+
+import com.ironlibrary.user_service.cache.UserCache;
+import com.ironlibrary.user_service.dto.CursorPage;
+import com.ironlibrary.user_service.dto.UserSummary;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de UserService contra H2 en memoria, con el contexto completo de Spring
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class UserServiceBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserCache userCache;
+
+    @Setup
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        userService = context.getBean(UserService.class);
+        userCache = context.getBean(UserCache.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public User findUserByIdCached() {
+        return userService.findUserById(randomId());
+    }
+
+    @Benchmark
+    public User findUserByIdUncached() {
+        userCache.clear();
+        return userService.findUserById(randomId());
+    }
+
+    @Benchmark
+    public User findUserByEmail() {
+        return userService.findUserByEmail("usuario" + (randomId() - 1) + "@email.com");
+    }
+
+    @Benchmark
+    public CursorPage<UserSummary> findAllUsersPage() {
+        return userService.findAllUsers(randomId(), 20);
+    }
+
+    @Benchmark
+    public List<UserSummary> findByName() {
+        return userService.findByName("nunez " + (randomId() - 1), 0, 20);
+    }
+
+    @Benchmark
+    public UserService.UserStats getUserStats() {
+        return userService.getUserStats();
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, BenchmarkApplication.USER_COUNT + 1);
+    }
+}
@@ -0,0 +1,128 @@
+package com.ironlibrary.user_service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestClient;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Transporte entre réplicas registradas en Eureka: cada mensaje se envía con
+ * un POST a /internal/cache/invalidations de las demás instancias del servicio,
+ * en hilos virtuales para no retrasar la respuesta de la escritura.
+ *
+ * Cada POST lleva el secreto compartido en la cabecera X-Cache-Invalidation-Secret
+ * y como sourceInstanceId el ID de la instancia en Eureka. El secreto es lo que
+ * autentica al emisor: no se comprueba que el origen figure ya en el registro
+ * local, porque una réplica recién arrancada tarda en aparecer en la caché de
+ * Eureka de las demás y sus invalidaciones se perderían. Al cerrar el contexto
+ * se esperan los envíos en curso, acotados por el timeout del RestClient.
+ */
+@Slf4j
+public class EurekaUserCacheTransport implements UserCacheInvalidationTransport, AutoCloseable {
+
+    public static final String INVALIDATIONS_PATH = "/internal/cache/invalidations";
+    public static final String SECRET_HEADER = "X-Cache-Invalidation-Secret";
+
+    private final DiscoveryClient discoveryClient;
+    private final RestClient restClient;
+    private final String serviceId;
+    private final String instanceId;
+    private final byte[] secret;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Counter failures;
+    private final Counter rejected;
+    private volatile Consumer<UserCacheInvalidationMessage> receiver = message -> { };
+
+    public EurekaUserCacheTransport(DiscoveryClient discoveryClient, RestClient restClient, String serviceId,
+                                    String instanceId, String secret, MeterRegistry meterRegistry) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalArgumentException(
+                    "user-service.cache.invalidation.secret es obligatorio con el transporte de Eureka");
+        }
+        this.discoveryClient = discoveryClient;
+        this.restClient = restClient;
+        this.serviceId = serviceId;
+        this.instanceId = instanceId;
+        this.secret = secret.getBytes(StandardCharsets.UTF_8);
+        this.failures = Counter.builder("users.cache.invalidations.failed")
+                .description("Invalidaciones que no se pudieron entregar a una réplica")
+                .register(meterRegistry);
+        this.rejected = Counter.builder("users.cache.invalidations.rejected")
+                .description("Invalidaciones recibidas sin el secreto compartido")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Optional<String> instanceId() {
+        return Optional.of(instanceId);
+    }
+
+    @Override
+    public void send(UserCacheInvalidationMessage message) {
+        List<ServiceInstance> instances = discoveryClient.getInstances(serviceId);
+        for (ServiceInstance instance : instances) {
+            if (!instanceId.equals(instance.getInstanceId())) {
+                executor.execute(() -> post(instance, message));
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(Consumer<UserCacheInvalidationMessage> receiver) {
+        this.receiver = receiver;
+    }
+
+    /**
+     * Comprobar el secreto compartido recibido en la cabecera, en tiempo constante
+     */
+    public boolean isAuthorized(String presentedSecret) {
+        boolean authorized = presentedSecret != null
+                && MessageDigest.isEqual(secret, presentedSecret.getBytes(StandardCharsets.UTF_8));
+        if (!authorized) {
+            rejected.increment();
+            log.warn("Invalidación de caché descartada: secreto compartido ausente o incorrecto");
+        }
+        return authorized;
+    }
+
+    /**
+     * Entregar un mensaje recibido por HTTP de otra réplica, ya autenticado con isAuthorized
+     */
+    public void receive(UserCacheInvalidationMessage message) {
+        receiver.accept(message);
+    }
+
+    /**
+     * Dejar de aceptar envíos y esperar a que terminen los que están en curso
+     */
+    @Override
+    public void close() {
+        executor.close();
+    }
+
+    private void post(ServiceInstance instance, UserCacheInvalidationMessage message) {
+        try {
+            restClient.post()
+                    .uri(instance.getUri().resolve(INVALIDATIONS_PATH))
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(SECRET_HEADER, new String(secret, StandardCharsets.UTF_8))
+                    .body(message)
+                    .retrieve()
+                    .toBodilessEntity();
+        } catch (RuntimeException e) {
+            failures.increment();
+            log.warn("No se pudo enviar la invalidación de caché a {}: {}", instance.getUri(), e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.ironlibrary.user_service.cache;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte en memoria: entrega cada mensaje, en el mismo hilo, a todos los
+ * receptores registrados. Con una sola instancia no tiene efecto; compartido
+ * entre varios contextos de Spring en la misma JVM simula varias réplicas.
+ */
+public class LoopbackUserCacheTransport implements UserCacheInvalidationTransport {
+
+    private final List<Consumer<UserCacheInvalidationMessage>> receivers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void send(UserCacheInvalidationMessage message) {
+        receivers.forEach(receiver -> receiver.accept(message));
+    }
+
+    @Override
+    public void onMessage(Consumer<UserCacheInvalidationMessage> receiver) {
+        receivers.add(receiver);
+    }
+}
@@ -0,0 +1,86 @@
+package com.ironlibrary.user_service.cache;
+
+import io.micrometer.core.instrument.Counter;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+/**
+ * Agrupa las cargas concurrentes de una misma clave: la primera llamada
+ * ejecuta el loader y las que llegan mientras está en curso esperan su
+ * resultado (o su excepción) en lugar de repetir la consulta.
+ * Cada llamada agrupada incrementa el contador indicado. La espera está
+ * acotada por timeout: si la carga no termina a tiempo, la llamada falla
+ * con QueryTimeoutException igual que si no hubiera obtenido conexión.
+ * El loader debe abrir su propia transacción: quien espera no retiene conexión.
+ */
+class SingleFlight<K, V> {
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter collapsed;
+    private final Duration timeout;
+
+    SingleFlight(Counter collapsed, Duration timeout) {
+        this.collapsed = collapsed;
+        this.timeout = timeout;
+    }
+
+    V load(K key, Function<K, V> loader) {
+        CompletableFuture<V> own = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, own);
+        if (existing != null) {
+            collapsed.increment();
+            return await(key, existing);
+        }
+
+        V value;
+        try {
+            value = loader.apply(key);
+        } catch (RuntimeException | Error e) {
+            inFlight.remove(key, own);
+            own.completeExceptionally(e);
+            throw e;
+        }
+        inFlight.remove(key, own);
+        own.complete(value);
+        return value;
+    }
+
+    /**
+     * Desligar la carga en curso de una clave: las llamadas posteriores
+     * (por ejemplo, tras una invalidación) hacen su propia carga
+     */
+    void forget(K key) {
+        inFlight.remove(key);
+    }
+
+    void forgetAll() {
+        inFlight.clear();
+    }
+
+    private V await(K key, CompletableFuture<V> future) {
+        try {
+            return future.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new QueryTimeoutException("La carga en curso de " + key + " no terminó en " + timeout, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new QueryTimeoutException("Espera interrumpida de la carga en curso de " + key, e);
+        }
+    }
+}
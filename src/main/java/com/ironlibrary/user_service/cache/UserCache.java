@@ -0,0 +1,363 @@
+package com.ironlibrary.user_service.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.ironlibrary.user_service.dto.UserValidation;
+import com.ironlibrary.user_service.model.NameNormalizer;
+import com.ironlibrary.user_service.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Caché en memoria (read-through) para búsquedas de usuarios por ID y por email.
+ * Acotada por tamaño y por TTL; las estadísticas de aciertos, fallos y
+ * desalojos se publican en Micrometer como cache.gets / cache.evictions.
+ * Los IDs y emails que no existen se recuerdan durante un TTL corto (caché
+ * negativa), de modo que los sondeos repetidos no llegan a la base de datos.
+ * La elegibilidad para préstamo se guarda aparte, calculada desde la proyección,
+ * para no cargar la entidad completa en cada validación.
+ * Las invalidaciones versionadas (ver UserCacheInvalidation) dejan una versión
+ * mínima por usuario durante version-ttl: una lectura que devuelva una versión
+ * anterior (por ejemplo, desde una instantánea de una transacción más antigua)
+ * no se guarda, y un usuario eliminado no vuelve a entrar en caché. Estas
+ * versiones tienen su propio límite (version-maximum-size), independiente del
+ * de los valores; si aun así se desaloja alguna por tamaño (por ejemplo, en una
+ * importación masiva), se vacían los valores en caché y se descartan las cargas
+ * en curso, porque ya no se podría reconocer una lectura obsoleta.
+ * User y UserValidation son mutables: la caché guarda una copia propia de cada
+ * valor y devuelve a cada llamada otra copia, de modo que lo que haga un llamante
+ * con el objeto no lo ven los demás ni la caché.
+ * Las búsquedas concurrentes que fallan en caché para el mismo ID o email se
+ * agrupan en una sola carga (users.cache.coalesced cuenta las agrupadas).
+ * Las que esperan no retienen conexión (los loaders abren su propia transacción)
+ * y esperan como mucho coalesce-timeout, por defecto el connection-timeout de Hikari.
+ */
+@Component
+@Slf4j
+public class UserCache {
+
+    private final Cache<Long, User> usersById;
+    private final Cache<String, Long> idsByEmail;
+    private final Cache<Long, UserValidation> validationsById;
+
+    /**
+     * Caché negativa: IDs y emails consultados recientemente que no existen.
+     * Se invalida al crear, actualizar o importar usuarios.
+     */
+    private final Cache<Long, Boolean> missingIds;
+    private final Cache<String, Boolean> missingEmails;
+    private final boolean negativeCacheEnabled;
+
+    /**
+     * Versión mínima que se acepta guardar por usuario, fijada por las
+     * invalidaciones versionadas; TOMBSTONE para usuarios eliminados
+     */
+    private final Cache<Long, Long> minVersions;
+    private final Counter minVersionsEvicted;
+
+    /**
+     * Se incrementa en cada invalidación. Una carga que empezó antes de una
+     * invalidación no se guarda, para no reintroducir datos obsoletos.
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    private static final long TOMBSTONE = Long.MAX_VALUE;
+
+    /**
+     * Cargas en curso por ID y por email; las invalidaciones las desligan
+     * para que una llamada posterior no reciba un resultado anterior a la escritura
+     */
+    private final SingleFlight<Long, Optional<User>> loadsById;
+    private final SingleFlight<String, Optional<User>> loadsByEmail;
+
+    public UserCache(@Value("${user-service.cache.maximum-size:10000}") long maximumSize,
+                     @Value("${user-service.cache.ttl:PT5M}") Duration ttl,
+                     @Value("${user-service.cache.negative-ttl:PT10S}") Duration negativeTtl,
+                     @Value("${user-service.cache.invalidation.version-ttl:PT1M}") Duration versionTtl,
+                     @Value("${user-service.cache.invalidation.version-maximum-size:100000}") long versionMaximumSize,
+                     @Value("${user-service.cache.coalesce-timeout:${spring.datasource.hikari.connection-timeout:30000}}")
+                     Duration coalesceTimeout,
+                     MeterRegistry meterRegistry) {
+        this.usersById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByEmail = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.validationsById = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.negativeCacheEnabled = negativeTtl.isPositive();
+        this.missingIds = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+        this.missingEmails = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(negativeTtl)
+                .recordStats()
+                .build();
+        this.minVersionsEvicted = Counter.builder("users.cache.versions.evicted")
+                .description("Versiones mínimas desalojadas por tamaño antes de su TTL; cada una vacía la caché")
+                .register(meterRegistry);
+        this.minVersions = Caffeine.newBuilder()
+                .maximumSize(versionMaximumSize)
+                .expireAfterWrite(versionTtl)
+                .executor(Runnable::run)
+                .<Long, Long>evictionListener((id, minVersion, cause) -> {
+                    if (cause == RemovalCause.SIZE) {
+                        onMinVersionEvicted();
+                    }
+                })
+                .build();
+
+        this.loadsById = new SingleFlight<>(coalescedCounter(meterRegistry, "id"), coalesceTimeout);
+        this.loadsByEmail = new SingleFlight<>(coalescedCounter(meterRegistry, "email"), coalesceTimeout);
+
+        CaffeineCacheMetrics.monitor(meterRegistry, usersById, "users.byId");
+        CaffeineCacheMetrics.monitor(meterRegistry, idsByEmail, "users.byEmail");
+        CaffeineCacheMetrics.monitor(meterRegistry, validationsById, "users.validationById");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingIds, "users.missingById");
+        CaffeineCacheMetrics.monitor(meterRegistry, missingEmails, "users.missingByEmail");
+    }
+
+    /**
+     * Buscar usuario por ID, cargándolo con el loader si no está en caché.
+     * Un ID que no existía en una consulta reciente se resuelve sin llamar al loader.
+     */
+    public Optional<User> getById(Long id, Function<Long, Optional<User>> loader) {
+        User cached = usersById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        if (negativeCacheEnabled && missingIds.getIfPresent(id) != null) {
+            return Optional.empty();
+        }
+
+        // Las llamadas agrupadas comparten el resultado de la carga: cada una recibe su copia
+        return loadsById.load(id, key -> {
+            long generationAtLoad = generation.get();
+            Optional<User> loaded = loader.apply(key);
+            if (loaded.isPresent()) {
+                put(loaded.get(), generationAtLoad);
+            } else {
+                putMissing(missingIds, key, generationAtLoad);
+            }
+            return loaded;
+        }).map(UserCache::copyOf);
+    }
+
+    /**
+     * Buscar usuario por email, cargándolo con el loader si no está en caché.
+     * Un email que no existía en una consulta reciente se resuelve sin llamar al loader.
+     */
+    public Optional<User> getByEmail(String email, Function<String, Optional<User>> loader) {
+        String key = emailKey(email);
+        Long id = idsByEmail.getIfPresent(key);
+        if (id != null) {
+            User cached = usersById.getIfPresent(id);
+            if (cached != null && key.equals(emailKey(cached.getEmail()))) {
+                return Optional.of(copyOf(cached));
+            }
+            idsByEmail.invalidate(key);
+        }
+        if (negativeCacheEnabled && missingEmails.getIfPresent(key) != null) {
+            return Optional.empty();
+        }
+
+        return loadsByEmail.load(key, ignored -> {
+            long generationAtLoad = generation.get();
+            Optional<User> loaded = loader.apply(email);
+            if (loaded.isPresent()) {
+                put(loaded.get(), generationAtLoad);
+            } else {
+                putMissing(missingEmails, key, generationAtLoad);
+            }
+            return loaded;
+        }).map(UserCache::copyOf);
+    }
+
+    /**
+     * Obtener la elegibilidad para préstamo de un usuario. Si el usuario completo
+     * ya está en caché se calcula a partir de él; si no, se carga con el loader
+     * (una proyección mínima) y se guarda hasta que el usuario cambie.
+     */
+    public Optional<UserValidation> getValidationById(Long id, Function<Long, Optional<UserValidation>> loader) {
+        User cachedUser = usersById.getIfPresent(id);
+        if (cachedUser != null) {
+            return Optional.of(UserValidation.from(cachedUser));
+        }
+        UserValidation cached = validationsById.getIfPresent(id);
+        if (cached != null) {
+            return Optional.of(copyOf(cached));
+        }
+        if (negativeCacheEnabled && missingIds.getIfPresent(id) != null) {
+            return Optional.empty();
+        }
+
+        long generationAtLoad = generation.get();
+        Optional<UserValidation> loaded = loader.apply(id);
+        if (loaded.isPresent()) {
+            // La proyección no lleva versión: tras una invalidación versionada no se guarda
+            if (generation.get() == generationAtLoad && minVersions.getIfPresent(id) == null) {
+                validationsById.put(id, copyOf(loaded.get()));
+            }
+        } else {
+            putMissing(missingIds, id, generationAtLoad);
+        }
+        return loaded;
+    }
+
+    /**
+     * Aplicar invalidaciones versionadas, locales o recibidas de otra réplica.
+     * Una invalidación con una versión anterior a la ya registrada no desaloja
+     * la entrada más nueva. Si hay una transacción activa se vuelve a invalidar
+     * tras el commit, para que ninguna lectura concurrente deje en caché el estado previo.
+     */
+    public void invalidate(Collection<UserCacheInvalidation> invalidations) {
+        doInvalidate(invalidations);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate(invalidations);
+                }
+            });
+        }
+    }
+
+    /**
+     * Vaciar la caché completa
+     */
+    public void clear() {
+        generation.incrementAndGet();
+        loadsById.forgetAll();
+        loadsByEmail.forgetAll();
+        usersById.invalidateAll();
+        idsByEmail.invalidateAll();
+        validationsById.invalidateAll();
+        missingIds.invalidateAll();
+        missingEmails.invalidateAll();
+        minVersions.invalidateAll();
+    }
+
+    /**
+     * Sin la versión mínima desalojada, una carga en curso o una entrada ya
+     * guardada podría ser anterior a la invalidación: se descartan los valores,
+     * no las demás versiones mínimas
+     */
+    private void onMinVersionEvicted() {
+        minVersionsEvicted.increment();
+        generation.incrementAndGet();
+        loadsById.forgetAll();
+        loadsByEmail.forgetAll();
+        usersById.invalidateAll();
+        idsByEmail.invalidateAll();
+        validationsById.invalidateAll();
+        log.debug("Versión mínima de caché desalojada por tamaño: se vacía la caché de usuarios");
+    }
+
+    private void put(User user, long generationAtLoad) {
+        if (user.getId() == null || generation.get() != generationAtLoad || isStale(user)) {
+            return;
+        }
+        usersById.put(user.getId(), copyOf(user));
+        if (user.getEmail() != null) {
+            idsByEmail.put(emailKey(user.getEmail()), user.getId());
+        }
+    }
+
+    private <K> void putMissing(Cache<K, Boolean> cache, K key, long generationAtLoad) {
+        if (negativeCacheEnabled && generation.get() == generationAtLoad) {
+            cache.put(key, Boolean.TRUE);
+        }
+    }
+
+    private void doInvalidate(Collection<UserCacheInvalidation> invalidations) {
+        generation.incrementAndGet();
+        for (UserCacheInvalidation invalidation : invalidations) {
+            Long id = invalidation.userId();
+            if (id != null) {
+                long minVersion = invalidation.deleted() ? TOMBSTONE
+                        : invalidation.version() != null ? invalidation.version() : 0L;
+                minVersions.asMap().merge(id, minVersion, Math::max);
+                loadsById.forget(id);
+                User cached = usersById.getIfPresent(id);
+                if (cached != null && isStale(cached)) {
+                    usersById.invalidate(id);
+                }
+                validationsById.invalidate(id);
+                if (!invalidation.deleted()) {
+                    missingIds.invalidate(id);
+                }
+            }
+            for (String email : invalidation.emails()) {
+                loadsByEmail.forget(emailKey(email));
+                idsByEmail.invalidate(emailKey(email));
+                missingEmails.invalidate(emailKey(email));
+            }
+        }
+        log.debug("Caché invalidada para {} usuarios", invalidations.size());
+    }
+
+    private boolean isStale(User user) {
+        Long minVersion = minVersions.getIfPresent(user.getId());
+        return minVersion != null && (user.getVersion() == null || user.getVersion() < minVersion);
+    }
+
+    /**
+     * Copia desligada de la sesión. Si los tokens del nombre no se llegaron a
+     * cargar (colección LAZY), se recalculan a partir del nombre en lugar de
+     * inicializar la colección fuera de su transacción.
+     */
+    private static User copyOf(User user) {
+        Set<String> nameTokens = user.getNameTokens() != null && Hibernate.isInitialized(user.getNameTokens())
+                ? new HashSet<>(user.getNameTokens())
+                : new HashSet<>(NameNormalizer.tokens(user.getName()));
+        return new User(user.getId(), user.getName(), user.getEmail(), user.getMembershipType(),
+                user.getIsActive(), user.getRegistrationDate(), user.getPhone(), user.getAddress(),
+                user.getVersion(), nameTokens);
+    }
+
+    private static UserValidation copyOf(UserValidation validation) {
+        return new UserValidation(validation.isCanBorrow(), validation.getMaxBooksAllowed(),
+                validation.getLoanDurationDays());
+    }
+
+    private static Counter coalescedCounter(MeterRegistry meterRegistry, String key) {
+        return Counter.builder("users.cache.coalesced")
+                .tag("key", key)
+                .description("Búsquedas que esperaron a una carga en curso en lugar de consultar la base de datos")
+                .register(meterRegistry);
+    }
+
+    private static String emailKey(String email) {
+        return Objects.requireNonNull(email).toLowerCase(Locale.ROOT);
+    }
+}
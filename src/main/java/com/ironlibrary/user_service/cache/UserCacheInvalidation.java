@@ -0,0 +1,40 @@
+package com.ironlibrary.user_service.cache;
+
+import com.ironlibrary.user_service.model.User;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Invalidación versionada de un usuario en caché.
+ * La versión es la de la entidad tras la escritura: una réplica no vuelve a
+ * guardar datos de una versión anterior, y una invalidación que llega tarde
+ * no desaloja una versión más nueva. Un usuario eliminado deja una lápida
+ * (deleted) que impide volver a guardarlo.
+ *
+ * @param emails emails afectados (el anterior y el nuevo si ha cambiado)
+ */
+public record UserCacheInvalidation(Long userId, Long version, boolean deleted, List<String> emails) {
+
+    public static UserCacheInvalidation updated(User user, String... previousEmails) {
+        return new UserCacheInvalidation(user.getId(), user.getVersion(), false, emails(user, previousEmails));
+    }
+
+    public static UserCacheInvalidation deleted(User user) {
+        return new UserCacheInvalidation(user.getId(), user.getVersion(), true, emails(user));
+    }
+
+    private static List<String> emails(User user, String... previousEmails) {
+        Set<String> emails = new LinkedHashSet<>();
+        for (String email : previousEmails) {
+            if (email != null) {
+                emails.add(email);
+            }
+        }
+        if (user.getEmail() != null) {
+            emails.add(user.getEmail());
+        }
+        return List.copyOf(emails);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ironlibrary.user_service.cache;
+
+import com.ironlibrary.user_service.model.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Coherencia de la caché de usuarios entre réplicas.
+ * Cada escritura invalida la caché local al momento y, tras el commit, envía
+ * la misma invalidación versionada a las demás réplicas por el transporte
+ * configurado. Los mensajes propios se ignoran al recibirlos.
+ */
+@Component
+@Slf4j
+public class UserCacheInvalidationBus {
+
+    private final String instanceId;
+    private final UserCache userCache;
+    private final UserCacheInvalidationTransport transport;
+    private final Counter sent;
+    private final Counter received;
+
+    public UserCacheInvalidationBus(UserCache userCache, UserCacheInvalidationTransport transport,
+                                    MeterRegistry meterRegistry) {
+        this.userCache = userCache;
+        this.transport = transport;
+        this.instanceId = transport.instanceId().orElseGet(() -> UUID.randomUUID().toString());
+        this.sent = Counter.builder("users.cache.invalidations")
+                .tag("direction", "sent")
+                .description("Invalidaciones de usuarios enviadas a otras réplicas")
+                .register(meterRegistry);
+        this.received = Counter.builder("users.cache.invalidations")
+                .tag("direction", "received")
+                .description("Invalidaciones de usuarios recibidas de otras réplicas")
+                .register(meterRegistry);
+        transport.onMessage(this::receive);
+    }
+
+    /**
+     * Invalidar un usuario creado o modificado, con su email anterior si ha cambiado
+     */
+    public void invalidate(User user, String... previousEmails) {
+        publish(List.of(UserCacheInvalidation.updated(user, previousEmails)));
+    }
+
+    /**
+     * Invalidar un usuario eliminado, dejando una lápida en todas las réplicas
+     */
+    public void invalidateDeleted(User user) {
+        publish(List.of(UserCacheInvalidation.deleted(user)));
+    }
+
+    /**
+     * Invalidar usuarios creados en bloque (importación) con un único mensaje
+     */
+    public void invalidate(Collection<User> users) {
+        publish(users.stream().map(UserCacheInvalidation::updated).toList());
+    }
+
+    /**
+     * Aplicar un mensaje de otra réplica a la caché local
+     */
+    public void receive(UserCacheInvalidationMessage message) {
+        if (instanceId.equals(message.sourceInstanceId())) {
+            return;
+        }
+        userCache.invalidate(message.invalidations());
+        received.increment(message.invalidations().size());
+    }
+
+    private void publish(List<UserCacheInvalidation> invalidations) {
+        if (invalidations.isEmpty()) {
+            return;
+        }
+        userCache.invalidate(invalidations);
+
+        UserCacheInvalidationMessage message = new UserCacheInvalidationMessage(instanceId, invalidations);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    send(message);
+                }
+            });
+        } else {
+            send(message);
+        }
+    }
+
+    private void send(UserCacheInvalidationMessage message) {
+        try {
+            transport.send(message);
+            sent.increment(message.invalidations().size());
+        } catch (RuntimeException e) {
+            log.warn("No se pudo enviar la invalidación de caché: {}", e.getMessage());
+        }
+    }
+}
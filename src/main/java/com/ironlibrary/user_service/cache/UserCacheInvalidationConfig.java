@@ -0,0 +1,50 @@
+package com.ironlibrary.user_service.cache;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.serviceregistry.Registration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+
+/**
+ * Selección del transporte de invalidaciones (user-service.cache.invalidation.transport):
+ * "eureka" envía a las réplicas registradas en Eureka; "loopback" (por defecto)
+ * las entrega en memoria, lo que con una sola instancia equivale a no enviarlas.
+ */
+@Configuration(proxyBeanMethods = false)
+public class UserCacheInvalidationConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(UserCacheInvalidationTransport.class)
+    @ConditionalOnProperty(name = "user-service.cache.invalidation.transport", havingValue = "eureka")
+    public EurekaUserCacheTransport eurekaUserCacheTransport(
+            DiscoveryClient discoveryClient,
+            Registration registration,
+            RestClient.Builder restClientBuilder,
+            MeterRegistry meterRegistry,
+            @Value("${spring.application.name}") String serviceId,
+            @Value("${user-service.cache.invalidation.timeout:PT1S}") Duration timeout,
+            @Value("${user-service.cache.invalidation.secret:}") String secret) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout(timeout);
+        requestFactory.setReadTimeout(timeout);
+        RestClient restClient = restClientBuilder.requestFactory(requestFactory).build();
+        return new EurekaUserCacheTransport(discoveryClient, restClient, serviceId,
+                registration.getInstanceId(), secret, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(UserCacheInvalidationTransport.class)
+    @ConditionalOnProperty(name = "user-service.cache.invalidation.transport", havingValue = "loopback",
+            matchIfMissing = true)
+    public LoopbackUserCacheTransport loopbackUserCacheTransport() {
+        return new LoopbackUserCacheTransport();
+    }
+}
@@ -0,0 +1,11 @@
+package com.ironlibrary.user_service.cache;
+
+import java.util.List;
+
+/**
+ * Mensaje entre réplicas con las invalidaciones de una transacción confirmada
+ *
+ * @param sourceInstanceId instancia que hizo la escritura; la propia instancia ignora sus mensajes
+ */
+public record UserCacheInvalidationMessage(String sourceInstanceId, List<UserCacheInvalidation> invalidations) {
+}
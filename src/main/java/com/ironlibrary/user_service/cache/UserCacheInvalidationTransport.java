@@ -0,0 +1,30 @@
+package com.ironlibrary.user_service.cache;
+
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Canal por el que las réplicas del servicio se envían invalidaciones de caché
+ * (user-service.cache.invalidation.transport).
+ */
+public interface UserCacheInvalidationTransport {
+
+    /**
+     * Enviar el mensaje a las demás réplicas. No debe bloquear al llamante
+     * ni propagar errores: si un envío falla, el TTL de la caché acota el desfase.
+     */
+    void send(UserCacheInvalidationMessage message);
+
+    /**
+     * Registrar el receptor de los mensajes que llegan de otras réplicas
+     */
+    void onMessage(Consumer<UserCacheInvalidationMessage> receiver);
+
+    /**
+     * Identidad de la instancia en el transporte, si la tiene, para firmar los mensajes
+     * como sourceInstanceId. Sin ella cada emisor usa un ID aleatorio.
+     */
+    default Optional<String> instanceId() {
+        return Optional.empty();
+    }
+}
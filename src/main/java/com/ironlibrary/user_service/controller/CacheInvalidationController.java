@@ -0,0 +1,36 @@
+package com.ironlibrary.user_service.controller;
+
+import com.ironlibrary.user_service.cache.EurekaUserCacheTransport;
+import com.ironlibrary.user_service.cache.UserCacheInvalidationMessage;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Endpoint interno por el que llegan las invalidaciones de caché de otras réplicas.
+ * Solo existe con el transporte de Eureka y no debe exponerse a través del gateway.
+ * Sin el secreto compartido responde 401.
+ */
+@RestController
+@ConditionalOnProperty(name = "user-service.cache.invalidation.transport", havingValue = "eureka")
+@RequiredArgsConstructor
+public class CacheInvalidationController {
+
+    private final EurekaUserCacheTransport transport;
+
+    @PostMapping(EurekaUserCacheTransport.INVALIDATIONS_PATH)
+    public ResponseEntity<Void> receive(
+            @RequestHeader(name = EurekaUserCacheTransport.SECRET_HEADER, required = false) String secret,
+            @RequestBody UserCacheInvalidationMessage message) {
+        if (!transport.isAuthorized(secret)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        transport.receive(message);
+        return ResponseEntity.accepted().build();
+    }
+}
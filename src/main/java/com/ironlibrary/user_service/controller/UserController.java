@@ -1,19 +1,39 @@
 package com.ironlibrary.user_service.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.ironlibrary.user_service.dto.BatchValidationResponse;
+import com.ironlibrary.user_service.dto.ImportReport;
+import com.ironlibrary.user_service.dto.UserSummary;
+import com.ironlibrary.user_service.dto.UserValidation;
+import com.ironlibrary.user_service.logging.LogMarkers;
 import com.ironlibrary.user_service.model.MembershipType;
 import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.service.UserFilter;
+import com.ironlibrary.user_service.service.UserImportService;
 import com.ironlibrary.user_service.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 /**
  * Controlador REST para operaciones de usuarios
  * Endpoints base: /api/users
+ * Los listados y búsquedas devuelven UserSummary; el usuario completo se
+ * obtiene por ID o email. Con ?fields=... los GET devuelven solo esos campos,
+ * seleccionados en la propia consulta.
  */
 @RestController
 @RequestMapping("/api/users")
@@ -22,86 +42,148 @@ import java.util.List;
 @CrossOrigin(origins = "*")
 public class UserController {
 
+    /**
+     * Tipo de contenido de JSON Merge Patch (RFC 7396)
+     */
+    public static final String MERGE_PATCH_JSON_VALUE = "application/merge-patch+json";
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final ObjectMapper objectMapper;
 
     /**
-     * GET /api/users - Obtener todos los usuarios
+     * GET /api/users - Obtener todos los usuarios.
+     * Con ?limit=50&after=0 se paginan por cursor; con ?fields=name,email se
+     * devuelven solo esos campos. Los dos parámetros se pueden combinar.
      */
     @GetMapping
-    public ResponseEntity<List<User>> getAllUsers() {
-        log.info("Solicitud GET para obtener todos los usuarios");
-        List<User> users = userService.findAllUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getAllUsers(@RequestParam(required = false) String fields,
+                                         @RequestParam(required = false) Integer limit,
+                                         @RequestParam(required = false) Long after) {
+        log.info(LogMarkers.READ, "Solicitud GET para obtener usuarios (campos: {}, límite: {}, después del ID: {})",
+                fields, limit, after);
+        return list(UserFilter.all(), fields, limit, after);
+    }
+
+    /**
+     * GET /api/users/export - Exportar todos los usuarios en NDJSON (un usuario por línea)
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportUsers() {
+        log.info("Solicitud GET para exportar todos los usuarios");
+        ObjectWriter writer = objectMapper.writerFor(User.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                userService.exportUsers(user -> {
+                    try {
+                        writer.writeValue(generator, user);
+                        generator.writeRaw('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     /**
-     * GET /api/users/{id} - Obtener usuario por ID
+     * GET /api/users/{id} - Obtener usuario por ID (con ?fields=name,email, solo esos campos)
      */
     @GetMapping("/{id}")
-    public ResponseEntity<User> getUserById(@PathVariable Long id) {
-        log.info("Solicitud GET para obtener usuario con ID: {}", id);
+    public ResponseEntity<?> getUserById(@PathVariable Long id,
+                                         @RequestParam(required = false) String fields,
+                                         @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info(LogMarkers.READ, "Solicitud GET para obtener usuario con ID: {} (campos: {})", id, fields);
+        if (fields != null) {
+            return ResponseEntity.ok(userService.findUserFieldsById(id, fields));
+        }
         User user = userService.findUserById(id);
-        return ResponseEntity.ok(user);
+        return conditionalResponse(user, ifNoneMatch);
     }
 
     /**
-     * GET /api/users/email/{email} - Obtener usuario por email
+     * GET /api/users/email/{email} - Obtener usuario por email (con ?fields=name,membershipType, solo esos campos)
      */
     @GetMapping("/email/{email}")
-    public ResponseEntity<User> getUserByEmail(@PathVariable String email) {
-        log.info("Solicitud GET para obtener usuario con email: {}", email);
+    public ResponseEntity<?> getUserByEmail(@PathVariable String email,
+                                            @RequestParam(required = false) String fields,
+                                            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        log.info(LogMarkers.READ, "Solicitud GET para obtener usuario con email: {} (campos: {})", email, fields);
+        if (fields != null) {
+            return ResponseEntity.ok(userService.findUserFieldsByEmail(email, fields));
+        }
         User user = userService.findUserByEmail(email);
-        return ResponseEntity.ok(user);
+        return conditionalResponse(user, ifNoneMatch);
     }
 
     /**
-     * GET /api/users/active - Obtener usuarios activos
+     * GET /api/users/active - Obtener usuarios activos (admite fields, limit y after)
      */
     @GetMapping("/active")
-    public ResponseEntity<List<User>> getActiveUsers() {
-        log.info("Solicitud GET para obtener usuarios activos");
-        List<User> users = userService.findActiveUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getActiveUsers(@RequestParam(required = false) String fields,
+                                            @RequestParam(required = false) Integer limit,
+                                            @RequestParam(required = false) Long after) {
+        log.info(LogMarkers.READ, "Solicitud GET para obtener usuarios activos (campos: {}, límite: {}, después del ID: {})",
+                fields, limit, after);
+        return list(UserFilter.active(), fields, limit, after);
     }
 
     /**
-     * GET /api/users/inactive - Obtener usuarios inactivos
+     * GET /api/users/inactive - Obtener usuarios inactivos (admite fields, limit y after)
      */
     @GetMapping("/inactive")
-    public ResponseEntity<List<User>> getInactiveUsers() {
-        log.info("Solicitud GET para obtener usuarios inactivos");
-        List<User> users = userService.findInactiveUsers();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getInactiveUsers(@RequestParam(required = false) String fields,
+                                              @RequestParam(required = false) Integer limit,
+                                              @RequestParam(required = false) Long after) {
+        log.info(LogMarkers.READ, "Solicitud GET para obtener usuarios inactivos (campos: {}, límite: {}, después del ID: {})",
+                fields, limit, after);
+        return list(UserFilter.inactive(), fields, limit, after);
     }
 
     /**
-     * GET /api/users/can-borrow - Obtener usuarios que pueden pedir prestado
+     * GET /api/users/can-borrow - Obtener usuarios que pueden pedir prestado (admite fields, limit y after)
      */
     @GetMapping("/can-borrow")
-    public ResponseEntity<List<User>> getUsersWhoCanBorrow() {
-        log.info("Solicitud GET para obtener usuarios que pueden pedir prestado");
-        List<User> users = userService.findUsersWhoCanBorrow();
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getUsersWhoCanBorrow(@RequestParam(required = false) String fields,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) Long after) {
+        log.info(LogMarkers.READ, "Solicitud GET para obtener usuarios que pueden pedir prestado (campos: {}, límite: {}, después del ID: {})",
+                fields, limit, after);
+        return list(UserFilter.canBorrow(), fields, limit, after);
     }
 
     /**
-     * GET /api/users/membership?type=PREMIUM - Obtener usuarios por membresía
+     * GET /api/users/membership?type=PREMIUM - Obtener usuarios por membresía (admite fields, limit y after)
      */
     @GetMapping("/membership")
-    public ResponseEntity<List<User>> getUsersByMembership(@RequestParam MembershipType type) {
-        log.info("Solicitud GET para obtener usuarios de membresía: {}", type);
-        List<User> users = userService.findByMembershipType(type);
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getUsersByMembership(@RequestParam MembershipType type,
+                                                  @RequestParam(required = false) String fields,
+                                                  @RequestParam(required = false) Integer limit,
+                                                  @RequestParam(required = false) Long after) {
+        log.info(LogMarkers.READ, "Solicitud GET para obtener usuarios de membresía {} (campos: {}, límite: {}, después del ID: {})",
+                type, fields, limit, after);
+        return list(UserFilter.membership(type), fields, limit, after);
     }
 
     /**
-     * GET /api/users/search/name?name=Juan - Buscar por nombre
+     * GET /api/users/search/name?name=Juan&page=0&size=50 - Buscar por nombre (ordenado por relevancia).
+     * Con ?fields=name,email se devuelven solo esos campos.
      */
     @GetMapping("/search/name")
-    public ResponseEntity<List<User>> getUsersByName(@RequestParam String name) {
-        log.info("Solicitud GET para buscar usuarios por nombre: {}", name);
-        List<User> users = userService.findByName(name);
-        return ResponseEntity.ok(users);
+    public ResponseEntity<?> getUsersByName(@RequestParam String name,
+                                            @RequestParam(required = false) String fields,
+                                            @RequestParam(defaultValue = "0") int page,
+                                            @RequestParam(defaultValue = "50") int size) {
+        log.info(LogMarkers.READ, "Solicitud GET para buscar usuarios por nombre: {} (campos: {})", name, fields);
+        if (fields != null) {
+            return ResponseEntity.ok(userService.findByName(name, page, size, fields));
+        }
+        return ResponseEntity.ok(userService.findByName(name, page, size));
     }
 
     /**
@@ -109,17 +191,37 @@ public class UserController {
      */
     @GetMapping("/{id}/validate")
     public ResponseEntity<Boolean> validateUser(@PathVariable Long id) {
-        log.info("Solicitud GET para validar usuario ID: {}", id);
+        log.info(LogMarkers.READ, "Solicitud GET para validar usuario ID: {}", id);
         boolean canBorrow = userService.validateUser(id);
         return ResponseEntity.ok(canBorrow);
     }
 
+    /**
+     * GET /api/users/{id}/eligibility - Elegibilidad y límites de préstamo en una sola llamada
+     */
+    @GetMapping("/{id}/eligibility")
+    public ResponseEntity<UserValidation> getLoanEligibility(@PathVariable Long id) {
+        log.info(LogMarkers.READ, "Solicitud GET para obtener elegibilidad de préstamo del usuario ID: {}", id);
+        UserValidation eligibility = userService.getLoanEligibility(id);
+        return ResponseEntity.ok(eligibility);
+    }
+
+    /**
+     * POST /api/users/validate/batch - Validar varios usuarios en una sola llamada
+     */
+    @PostMapping("/validate/batch")
+    public ResponseEntity<BatchValidationResponse> validateUsers(@RequestBody List<Long> ids) {
+        log.info(LogMarkers.READ, "Solicitud POST para validar lote de usuarios");
+        BatchValidationResponse response = userService.validateUsers(ids);
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * GET /api/users/stats - Obtener estadísticas de usuarios
      */
     @GetMapping("/stats")
     public ResponseEntity<UserService.UserStats> getUserStats() {
-        log.info("Solicitud GET para obtener estadísticas de usuarios");
+        log.info(LogMarkers.READ, "Solicitud GET para obtener estadísticas de usuarios");
         UserService.UserStats stats = userService.getUserStats();
         return ResponseEntity.ok(stats);
     }
@@ -129,39 +231,73 @@ public class UserController {
      */
     @PostMapping
     public ResponseEntity<User> createUser(@RequestBody User user) {
-        log.info("Solicitud POST para crear nuevo usuario: {}", user.getName());
+        log.debug("Solicitud POST para crear nuevo usuario: {}", user.getName());
         User savedUser = userService.saveUser(user);
         return ResponseEntity.status(HttpStatus.CREATED).body(savedUser);
     }
 
+    /**
+     * POST /api/users/import - Importación masiva de usuarios desde un array JSON
+     */
+    @PostMapping(value = "/import", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<ImportReport> importUsers(@RequestBody List<User> users) {
+        log.info("Solicitud POST para importar {} usuarios (JSON)", users.size());
+        ImportReport report = userImportService.importUsers(users);
+        return ResponseEntity.ok(report);
+    }
+
+    /**
+     * POST /api/users/import - Importación masiva de usuarios desde CSV con cabecera
+     */
+    @PostMapping(value = "/import", consumes = "text/csv")
+    public ResponseEntity<ImportReport> importUsersCsv(@RequestBody String csv) {
+        log.info("Solicitud POST para importar usuarios (CSV)");
+        ImportReport report = userImportService.importCsv(csv);
+        return ResponseEntity.ok(report);
+    }
+
     /**
      * PUT /api/users/{id} - Actualizar usuario completo
      */
     @PutMapping("/{id}")
-    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User user) {
-        log.info("Solicitud PUT para actualizar usuario con ID: {}", id);
-        User updatedUser = userService.updateUser(id, user);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<User> updateUser(@PathVariable Long id, @RequestBody User user,
+                                           @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("Solicitud PUT para actualizar usuario con ID: {}", id);
+        User updatedUser = userService.updateUser(id, user, UserETags.expectedVersion(ifMatch));
+        return withETag(updatedUser);
+    }
+
+    /**
+     * PATCH /api/users/{id} - Actualizar solo los campos enviados (JSON Merge Patch)
+     */
+    @PatchMapping(value = "/{id}", consumes = MERGE_PATCH_JSON_VALUE)
+    public ResponseEntity<User> patchUser(@PathVariable Long id, @RequestBody JsonNode patch,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("Solicitud PATCH para actualizar parcialmente el usuario ID: {}", id);
+        User updatedUser = userService.patchUser(id, patch, UserETags.expectedVersion(ifMatch));
+        return withETag(updatedUser);
     }
 
     /**
      * PATCH /api/users/{id}/toggle-status - Activar/Desactivar usuario
      */
     @PatchMapping("/{id}/toggle-status")
-    public ResponseEntity<User> toggleUserStatus(@PathVariable Long id) {
-        log.info("Solicitud PATCH para cambiar estado del usuario ID: {}", id);
-        User updatedUser = userService.toggleUserStatus(id);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<User> toggleUserStatus(@PathVariable Long id,
+                                                 @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("Solicitud PATCH para cambiar estado del usuario ID: {}", id);
+        User updatedUser = userService.toggleUserStatus(id, UserETags.expectedVersion(ifMatch));
+        return withETag(updatedUser);
     }
 
     /**
      * PATCH /api/users/{id}/membership?type=PREMIUM - Cambiar tipo de membresía
      */
     @PatchMapping("/{id}/membership")
-    public ResponseEntity<User> updateMembershipType(@PathVariable Long id, @RequestParam MembershipType type) {
-        log.info("Solicitud PATCH para actualizar membresía del usuario ID: {} a {}", id, type);
-        User updatedUser = userService.updateMembershipType(id, type);
-        return ResponseEntity.ok(updatedUser);
+    public ResponseEntity<User> updateMembershipType(@PathVariable Long id, @RequestParam MembershipType type,
+                                                     @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        log.debug("Solicitud PATCH para actualizar membresía del usuario ID: {} a {}", id, type);
+        User updatedUser = userService.updateMembershipType(id, type, UserETags.expectedVersion(ifMatch));
+        return withETag(updatedUser);
     }
 
     /**
@@ -169,7 +305,7 @@ public class UserController {
      */
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteUser(@PathVariable Long id) {
-        log.info("Solicitud DELETE para eliminar usuario con ID: {}", id);
+        log.debug("Solicitud DELETE para eliminar usuario con ID: {}", id);
         userService.deleteUser(id);
         return ResponseEntity.noContent().build();
     }
@@ -181,4 +317,38 @@ public class UserController {
     public ResponseEntity<String> healthCheck() {
         return ResponseEntity.ok("User Service is running on port 8082");
     }
+
+    /**
+     * Listado con el filtro de la ruta: lista completa o página por cursor (limit),
+     * con UserSummary o solo los campos pedidos (fields)
+     */
+    private ResponseEntity<?> list(UserFilter filter, String fields, Integer limit, Long after) {
+        if (fields == null) {
+            return ResponseEntity.ok(limit == null
+                    ? userService.findUsers(filter)
+                    : userService.findUsers(filter, after, limit));
+        }
+        return ResponseEntity.ok(limit == null
+                ? userService.findUserFields(filter, fields)
+                : userService.findUserFields(filter, fields, after, limit));
+    }
+
+    /**
+     * Respuesta con el usuario y su ETag, o 304 si If-None-Match ya corresponde a su versión
+     */
+    private ResponseEntity<User> conditionalResponse(User user, String ifNoneMatch) {
+        String etag = UserETags.of(user);
+        if (UserETags.notModified(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return withETag(user);
+    }
+
+    private ResponseEntity<User> withETag(User user) {
+        String etag = UserETags.of(user);
+        if (etag == null) {
+            return ResponseEntity.ok(user);
+        }
+        return ResponseEntity.ok().eTag(etag).body(user);
+    }
 }
@@ -0,0 +1,62 @@
+package com.ironlibrary.user_service.controller;
+
+import com.ironlibrary.user_service.exception.PreconditionFailedException;
+import com.ironlibrary.user_service.model.User;
+
+/**
+ * ETags de usuario a partir de su versión (@Version) y evaluación de
+ * las cabeceras condicionales If-None-Match e If-Match
+ */
+final class UserETags {
+
+    private static final String WEAK_PREFIX = "W/";
+
+    private UserETags() {
+    }
+
+    /**
+     * ETag fuerte del usuario, o null si aún no tiene versión
+     */
+    static String of(User user) {
+        return user.getVersion() == null ? null : "\"" + user.getVersion() + "\"";
+    }
+
+    /**
+     * Evaluar If-None-Match con comparación débil: true si el cliente ya tiene esta versión
+     */
+    static boolean notModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.equals("*") || stripWeak(tag).equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Versión esperada según If-Match, o null si no hay precondición (cabecera ausente o "*").
+     * Solo se admite un ETag fuerte; cualquier otro valor no puede coincidir y se responde 412.
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.isBlank() || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() > 2 && tag.startsWith("\"") && tag.endsWith("\"")) {
+            try {
+                return Long.parseLong(tag.substring(1, tag.length() - 1));
+            } catch (NumberFormatException e) {
+                // Se responde como una versión que no coincide
+            }
+        }
+        throw new PreconditionFailedException("If-Match no corresponde a ninguna versión del usuario: " + ifMatch);
+    }
+
+    private static String stripWeak(String tag) {
+        return tag.startsWith(WEAK_PREFIX) ? tag.substring(WEAK_PREFIX.length()) : tag;
+    }
+}
@@ -0,0 +1,19 @@
+package com.ironlibrary.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Respuesta de validación en lote: resultados por ID y los IDs que no existen
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchValidationResponse {
+    private Map<Long, UserValidation> results;
+    private List<Long> notFound;
+}
@@ -0,0 +1,20 @@
+package com.ironlibrary.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Página de resultados paginada por cursor (keyset sobre el ID).
+ * nextCursor es el valor a enviar como "after" para obtener la siguiente
+ * página, o null si no hay más resultados.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> items;
+    private Long nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.ironlibrary.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Informe de una importación masiva de usuarios
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportReport {
+    private int total;
+    private int created;
+    private int skipped;
+    private List<ImportRowResult> rows;
+}
@@ -0,0 +1,19 @@
+package com.ironlibrary.user_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de importación de una fila (numerada desde 1)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ImportRowResult {
+    private int row;
+    private String email;
+    private ImportStatus status;
+    private Long id;
+    private String message;
+}
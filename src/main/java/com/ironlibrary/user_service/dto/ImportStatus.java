@@ -0,0 +1,11 @@
+package com.ironlibrary.user_service.dto;
+
+/**
+ * Resultado de una fila en la importación masiva de usuarios
+ */
+public enum ImportStatus {
+    CREATED,
+    DUPLICATE_IN_FILE,
+    EMAIL_ALREADY_EXISTS,
+    INVALID
+}
@@ -0,0 +1,25 @@
+package com.ironlibrary.user_service.dto;
+
+import com.ironlibrary.user_service.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Fila de entrada de una importación: el usuario leído o el error de lectura
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserImportRow {
+    private User user;
+    private String error;
+
+    public static UserImportRow of(User user) {
+        return new UserImportRow(user, null);
+    }
+
+    public static UserImportRow invalid(String error) {
+        return new UserImportRow(null, error);
+    }
+}
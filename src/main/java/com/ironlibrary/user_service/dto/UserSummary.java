@@ -0,0 +1,24 @@
+package com.ironlibrary.user_service.dto;
+
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+
+/**
+ * Resumen de un usuario para listados, búsquedas y validaciones.
+ * Contiene solo los campos que usan los demás servicios y se construye
+ * directamente en la consulta (proyección), sin cargar entidades gestionadas.
+ */
+public record UserSummary(Long id, String name, String email, MembershipType membershipType, Boolean isActive) {
+
+    public static UserSummary from(User user) {
+        return new UserSummary(user.getId(), user.getName(), user.getEmail(),
+                user.getMembershipType(), user.getIsActive());
+    }
+
+    /**
+     * Misma semántica que User.canBorrowBooks()
+     */
+    public boolean canBorrowBooks() {
+        return User.canBorrowBooks(isActive, membershipType);
+    }
+}
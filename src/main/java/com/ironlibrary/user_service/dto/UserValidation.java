@@ -0,0 +1,39 @@
+package com.ironlibrary.user_service.dto;
+
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Resultado de validación de préstamo para un usuario
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserValidation {
+    private boolean canBorrow;
+    private int maxBooksAllowed;
+    private int loanDurationDays;
+
+    public static UserValidation from(User user) {
+        return of(user.getIsActive(), user.getMembershipType());
+    }
+
+    /**
+     * Construye la validación a partir de la proyección, sin cargar la entidad
+     */
+    public static UserValidation from(UserSummary user) {
+        return of(user.isActive(), user.membershipType());
+    }
+
+    /**
+     * Validación con la regla de User.canBorrowBooks() y los límites de la membresía
+     */
+    private static UserValidation of(Boolean isActive, MembershipType membershipType) {
+        return new UserValidation(User.canBorrowBooks(isActive, membershipType),
+                membershipType != null ? membershipType.getMaxBooks() : 0,
+                membershipType != null ? membershipType.getLoanDurationDays() : 0);
+    }
+}
@@ -0,0 +1,22 @@
+package com.ironlibrary.user_service.events;
+
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * Publicador en proceso: entrega cada evento como evento de aplicación de Spring,
+ * de modo que cualquier @EventListener(UserChangeEvent) lo recibe. Es el
+ * publicador por defecto y el que usan los tests.
+ */
+public class LocalUserEventPublisher implements UserEventPublisher {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public LocalUserEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Override
+    public void publish(UserChangeEvent event) {
+        applicationEventPublisher.publishEvent(event);
+    }
+}
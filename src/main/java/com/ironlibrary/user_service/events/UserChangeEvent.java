@@ -0,0 +1,46 @@
+package com.ironlibrary.user_service.events;
+
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+
+import java.time.Instant;
+
+/**
+ * Evento de cambio de un usuario, con el estado resultante.
+ * Los consumidores pueden actualizar su caché local solo con el evento;
+ * version permite descartar eventos que lleguen fuera de orden o repetidos.
+ *
+ * @param eventId ID de la fila del outbox (null hasta que el relay lo publica)
+ * @param version versión del usuario tras la escritura; en DELETED, la última
+ *                versión más uno, porque el borrado no incrementa la columna y el
+ *                evento debe ordenarse después de todos los anteriores
+ */
+public record UserChangeEvent(Long eventId,
+                              UserChangeType type,
+                              Long userId,
+                              Long version,
+                              String email,
+                              MembershipType membershipType,
+                              Boolean isActive,
+                              Instant occurredAt) {
+
+    public static UserChangeEvent of(UserChangeType type, User user, Instant occurredAt) {
+        Long version = user.getVersion();
+        if (type == UserChangeType.DELETED && version != null) {
+            version = version + 1;
+        }
+        return new UserChangeEvent(null, type, user.getId(), version, user.getEmail(),
+                user.getMembershipType(), user.getIsActive(), occurredAt);
+    }
+
+    public UserChangeEvent withEventId(Long eventId) {
+        return new UserChangeEvent(eventId, type, userId, version, email, membershipType, isActive, occurredAt);
+    }
+
+    /**
+     * Misma semántica que User.canBorrowBooks(); falso para usuarios eliminados
+     */
+    public boolean canBorrowBooks() {
+        return type != UserChangeType.DELETED && User.canBorrowBooks(isActive, membershipType);
+    }
+}
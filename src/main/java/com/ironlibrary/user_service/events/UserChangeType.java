@@ -0,0 +1,13 @@
+package com.ironlibrary.user_service.events;
+
+/**
+ * Tipos de cambio de usuario que se publican a otros servicios
+ */
+public enum UserChangeType {
+    CREATED,
+    UPDATED,
+    ACTIVATED,
+    DEACTIVATED,
+    MEMBERSHIP_CHANGED,
+    DELETED
+}
@@ -0,0 +1,13 @@
+package com.ironlibrary.user_service.events;
+
+/**
+ * Destino de los eventos de cambio de usuario. UserOutboxRelay lo invoca
+ * con los eventos del outbox en orden; si lanza una excepción el evento
+ * se reintenta en la siguiente ejecución (entrega al menos una vez).
+ * Registrar un bean propio (por ejemplo, hacia un broker) sustituye al
+ * publicador local.
+ */
+public interface UserEventPublisher {
+
+    void publish(UserChangeEvent event) throws Exception;
+}
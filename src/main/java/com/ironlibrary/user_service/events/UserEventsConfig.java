@@ -0,0 +1,21 @@
+package com.ironlibrary.user_service.events;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Selección del publicador de eventos (user-service.events.publisher).
+ * Con "local" (por defecto) los eventos se entregan en proceso; otro valor
+ * desactiva este bean para que lo sustituya el publicador que se registre.
+ */
+@Configuration(proxyBeanMethods = false)
+public class UserEventsConfig {
+
+    @Bean
+    @ConditionalOnProperty(name = "user-service.events.publisher", havingValue = "local", matchIfMissing = true)
+    public LocalUserEventPublisher localUserEventPublisher(ApplicationEventPublisher applicationEventPublisher) {
+        return new LocalUserEventPublisher(applicationEventPublisher);
+    }
+}
@@ -0,0 +1,67 @@
+package com.ironlibrary.user_service.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironlibrary.user_service.model.User;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Outbox transaccional de cambios de usuario.
+ * Los eventos se insertan en user_outbox dentro de la transacción de la escritura,
+ * así que solo existen si el cambio se confirma; UserOutboxRelay los publica después.
+ */
+@Component
+public class UserOutbox {
+
+    private static final String INSERT_SQL =
+            "INSERT INTO user_outbox (event_type, user_id, payload, created_at) " +
+            "VALUES (:eventType, :userId, :payload, :createdAt)";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+
+    public UserOutbox(NamedParameterJdbcTemplate jdbcTemplate, ObjectMapper objectMapper) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Registrar un cambio de un usuario con su estado actual
+     */
+    public void record(UserChangeType type, User user) {
+        record(type, List.of(user));
+    }
+
+    /**
+     * Registrar el mismo tipo de cambio para varios usuarios en un único lote JDBC
+     */
+    public void record(UserChangeType type, Collection<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        Instant now = Instant.now();
+        MapSqlParameterSource[] batch = users.stream()
+                .map(user -> new MapSqlParameterSource()
+                        .addValue("eventType", type.name())
+                        .addValue("userId", user.getId())
+                        .addValue("payload", toJson(UserChangeEvent.of(type, user, now)))
+                        .addValue("createdAt", Timestamp.from(now)))
+                .toArray(MapSqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+    }
+
+    private String toJson(UserChangeEvent event) {
+        try {
+            return objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("No se pudo serializar el evento del usuario " + event.userId(), e);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.ironlibrary.user_service.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Publica los eventos pendientes de user_outbox con el UserEventPublisher configurado.
+ * Cada bloque se lee con FOR UPDATE SKIP LOCKED, de modo que varias instancias
+ * pueden ejecutar el relay sin publicar dos veces la misma fila. Si la publicación
+ * de un evento falla, ese evento y los siguientes del bloque se reintentan en la
+ * próxima ejecución (entrega al menos una vez, en orden de inserción por instancia).
+ * Los eventos publicados se borran pasado el periodo de retención.
+ */
+@Component
+@Slf4j
+public class UserOutboxRelay {
+
+    private static final String SELECT_PENDING_SQL =
+            "SELECT id, payload FROM user_outbox WHERE published_at IS NULL " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED";
+    private static final String MARK_PUBLISHED_SQL =
+            "UPDATE user_outbox SET published_at = :publishedAt WHERE id IN (:ids)";
+    private static final String DELETE_PUBLISHED_SQL =
+            "DELETE FROM user_outbox WHERE published_at < :cutoff";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final UserEventPublisher publisher;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final Duration retention;
+
+    public UserOutboxRelay(NamedParameterJdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager,
+                           UserEventPublisher publisher,
+                           ObjectMapper objectMapper,
+                           @Value("${user-service.events.batch-size:100}") int batchSize,
+                           @Value("${user-service.events.retention:P7D}") Duration retention) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.publisher = publisher;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.retention = retention;
+    }
+
+    @Scheduled(fixedDelayString = "${user-service.events.relay-interval:PT1S}",
+            initialDelayString = "${user-service.events.relay-interval:PT1S}")
+    public void scheduledRelay() {
+        relay();
+        purgePublished();
+    }
+
+    /**
+     * Publicar todos los eventos pendientes, bloque a bloque
+     *
+     * @return número de eventos publicados
+     */
+    public int relay() {
+        int total = 0;
+        while (true) {
+            Batch batch = transactionTemplate.execute(status -> publishBatch());
+            total += batch.published();
+            if (batch.failed() || batch.published() < batchSize) {
+                break;
+            }
+        }
+        if (total > 0) {
+            log.debug("Eventos de usuario publicados: {}", total);
+        }
+        return total;
+    }
+
+    /**
+     * Borrar los eventos publicados hace más que el periodo de retención
+     */
+    public int purgePublished() {
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(retention));
+        return jdbcTemplate.update(DELETE_PUBLISHED_SQL, new MapSqlParameterSource("cutoff", cutoff));
+    }
+
+    private Batch publishBatch() {
+        List<PendingEvent> pending = jdbcTemplate.query(SELECT_PENDING_SQL,
+                new MapSqlParameterSource("limit", batchSize),
+                (rs, rowNum) -> new PendingEvent(rs.getLong("id"), rs.getString("payload")));
+
+        List<Long> published = new ArrayList<>(pending.size());
+        boolean failed = false;
+        for (PendingEvent event : pending) {
+            try {
+                UserChangeEvent change = objectMapper.readValue(event.payload(), UserChangeEvent.class);
+                publisher.publish(change.withEventId(event.id()));
+                published.add(event.id());
+            } catch (Exception e) {
+                log.warn("No se pudo publicar el evento {} del outbox; se reintentará: {}", event.id(), e.getMessage());
+                failed = true;
+                break;
+            }
+        }
+
+        if (!published.isEmpty()) {
+            jdbcTemplate.update(MARK_PUBLISHED_SQL, new MapSqlParameterSource()
+                    .addValue("publishedAt", Timestamp.from(Instant.now()))
+                    .addValue("ids", published));
+        }
+        return new Batch(published.size(), failed);
+    }
+
+    private record PendingEvent(long id, String payload) {
+    }
+
+    private record Batch(int published, boolean failed) {
+    }
+}
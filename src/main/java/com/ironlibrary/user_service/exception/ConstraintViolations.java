@@ -0,0 +1,64 @@
+package com.ironlibrary.user_service.exception;
+
+import com.ironlibrary.user_service.model.User;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.SQLException;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Utilidades para identificar violaciones de restricciones de la base de datos
+ */
+public final class ConstraintViolations {
+
+    /**
+     * Error de MySQL para una entrada duplicada en una clave única
+     */
+    private static final int MYSQL_DUPLICATE_ENTRY = 1062;
+
+    /**
+     * SQLState estándar de violación de unicidad (H2, PostgreSQL)
+     */
+    private static final String UNIQUE_VIOLATION_SQL_STATE = "23505";
+
+    /**
+     * Clave sobre la columna email con el nombre que le haya dado la base de datos:
+     * "for key 'users.email'" o "for key 'email'" en MySQL, "USERS(EMAIL" en H2
+     */
+    private static final Pattern EMAIL_KEY = Pattern.compile("for key '(users\\.)?email'|users\\(email\\b");
+
+    private ConstraintViolations() {
+    }
+
+    /**
+     * Indica si la excepción proviene de la restricción única sobre users.email.
+     * Se reconoce por su nombre (uk_users_email) o, si la base de datos aún
+     * tiene la clave con otro nombre, por el error de duplicado sobre la columna.
+     */
+    public static boolean isDuplicateEmail(DataIntegrityViolationException ex) {
+        String constraint = User.EMAIL_UNIQUE_CONSTRAINT.toLowerCase(Locale.ROOT);
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation
+                    && violation.getConstraintName() != null
+                    && violation.getConstraintName().toLowerCase(Locale.ROOT).contains(constraint)) {
+                return true;
+            }
+            if (cause.getMessage() != null && cause.getMessage().toLowerCase(Locale.ROOT).contains(constraint)) {
+                return true;
+            }
+            if (cause instanceof SQLException sqlException && isDuplicateOnEmailColumn(sqlException)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isDuplicateOnEmailColumn(SQLException ex) {
+        boolean duplicate = ex.getErrorCode() == MYSQL_DUPLICATE_ENTRY
+                || UNIQUE_VIOLATION_SQL_STATE.equals(ex.getSQLState());
+        return duplicate && ex.getMessage() != null
+                && EMAIL_KEY.matcher(ex.getMessage().toLowerCase(Locale.ROOT)).find();
+    }
+}
@@ -1,7 +1,10 @@
 package com.ironlibrary.user_service.exception;
 
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -11,23 +14,28 @@ import org.springframework.web.context.request.WebRequest;
 import java.time.LocalDateTime;
 
 /**
- * Manejador global de excepciones para el User Service
+ * Manejador global de excepciones para el User Service.
+ * Las excepciones esperadas (4xx) se registran en DEBUG: forman parte del
+ * flujo normal y ya se cuentan en las métricas; solo los errores inesperados
+ * se registran en ERROR con la traza completa.
  */
 @RestControllerAdvice
 @Slf4j
 public class GlobalExceptionHandler {
 
     /**
-     * Maneja excepciones cuando no se encuentra un usuario
+     * Maneja excepciones cuando no se encuentra un usuario.
+     * Es la respuesta de error más frecuente (sondeos de otros servicios), por
+     * lo que toma la ruta directamente de la petición sin formatear descripciones.
      */
     @ExceptionHandler(UserNotFoundException.class)
-    public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException ex, WebRequest request) {
-        log.error("Usuario no encontrado: {}", ex.getMessage());
+    public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException ex, HttpServletRequest request) {
+        log.debug("Usuario no encontrado: {}", ex.getMessage());
         ErrorResponse error = new ErrorResponse(
                 HttpStatus.NOT_FOUND.value(),
                 ex.getMessage(),
                 LocalDateTime.now(),
-                request.getDescription(false).replace("uri=", "")
+                request.getRequestURI()
         );
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
@@ -37,7 +45,7 @@ public class GlobalExceptionHandler {
      */
     @ExceptionHandler(EmailAlreadyExistsException.class)
     public ResponseEntity<ErrorResponse> handleEmailAlreadyExists(EmailAlreadyExistsException ex, WebRequest request) {
-        log.error("Email ya existe: {}", ex.getMessage());
+        log.debug("Email ya existe: {}", ex.getMessage());
         ErrorResponse error = new ErrorResponse(
                 HttpStatus.CONFLICT.value(),
                 ex.getMessage(),
@@ -47,12 +55,55 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
 
+    /**
+     * Maneja excepciones de If-Match que no coincide con la versión actual
+     */
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity<ErrorResponse> handlePreconditionFailed(PreconditionFailedException ex, WebRequest request) {
+        log.debug("Precondición fallida: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.PRECONDITION_FAILED.value(),
+                ex.getMessage(),
+                LocalDateTime.now(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).body(error);
+    }
+
+    /**
+     * Maneja escrituras concurrentes detectadas por el bloqueo optimista (@Version)
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<ErrorResponse> handleOptimisticLockingFailure(OptimisticLockingFailureException ex, WebRequest request) {
+        log.debug("Conflicto de versión: {}", ex.getMessage());
+        ErrorResponse error = new ErrorResponse(
+                HttpStatus.CONFLICT.value(),
+                "El usuario fue modificado por otra petición",
+                LocalDateTime.now(),
+                request.getDescription(false).replace("uri=", "")
+        );
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
+    }
+
+    /**
+     * Maneja violaciones de restricciones de la base de datos.
+     * La del email único se responde como EmailAlreadyExistsException (409).
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<ErrorResponse> handleDataIntegrityViolation(DataIntegrityViolationException ex, WebRequest request) {
+        if (ConstraintViolations.isDuplicateEmail(ex)) {
+            return handleEmailAlreadyExists(
+                    new EmailAlreadyExistsException("Ya existe un usuario con ese email"), request);
+        }
+        return handleGeneral(ex, request);
+    }
+
     /**
      * Maneja errores de argumentos ilegales
      */
     @ExceptionHandler(IllegalArgumentException.class)
     public ResponseEntity<ErrorResponse> handleIllegalArgument(IllegalArgumentException ex, WebRequest request) {
-        log.error("Argumento ilegal: {}", ex.getMessage());
+        log.debug("Argumento ilegal: {}", ex.getMessage());
         ErrorResponse error = new ErrorResponse(
                 HttpStatus.BAD_REQUEST.value(),
                 ex.getMessage(),
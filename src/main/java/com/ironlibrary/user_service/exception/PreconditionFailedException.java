@@ -0,0 +1,10 @@
+package com.ironlibrary.user_service.exception;
+
+/**
+ * Excepción lanzada cuando la versión indicada en If-Match no coincide con la del usuario
+ */
+public class PreconditionFailedException extends RuntimeException {
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
@@ -1,10 +1,12 @@
 package com.ironlibrary.user_service.exception;
 
 /**
- * Excepción lanzada cuando no se encuentra un usuario
+ * Excepción lanzada cuando no se encuentra un usuario.
+ * Es un resultado esperado (se traduce a un 404), así que no captura la traza
+ * de la pila: crearla cuesta más que la propia búsqueda y nunca se registra.
  */
 public class UserNotFoundException extends RuntimeException {
     public UserNotFoundException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 }
@@ -0,0 +1,18 @@
+package com.ironlibrary.user_service.logging;
+
+import org.slf4j.Marker;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Marcadores de log usados por la configuración de logback (logback-spring.xml)
+ */
+public final class LogMarkers {
+
+    /**
+     * Eventos de rutas de lectura; se muestrean con ReadSamplingTurboFilter
+     */
+    public static final Marker READ = MarkerFactory.getMarker("READ");
+
+    private LogMarkers() {
+    }
+}
@@ -0,0 +1,44 @@
+package com.ironlibrary.user_service.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Deja pasar solo uno de cada sampleRate eventos marcados con LogMarkers.READ.
+ * Se evalúa antes de formatear el mensaje, por lo que los eventos descartados
+ * no cuestan más que una comparación; los WARN y ERROR nunca se muestrean.
+ */
+public class ReadSamplingTurboFilter extends TurboFilter {
+
+    private int sampleRate = 100;
+
+    public int getSampleRate() {
+        return sampleRate;
+    }
+
+    /**
+     * 1 registra todos los eventos de lectura; 0 o menos los descarta todos
+     */
+    public void setSampleRate(int sampleRate) {
+        this.sampleRate = sampleRate;
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (marker == null || !marker.contains(LogMarkers.READ) || level.isGreaterOrEqual(Level.WARN)) {
+            return FilterReply.NEUTRAL;
+        }
+        if (sampleRate <= 0) {
+            return FilterReply.DENY;
+        }
+        if (sampleRate == 1 || ThreadLocalRandom.current().nextInt(sampleRate) == 0) {
+            return FilterReply.NEUTRAL;
+        }
+        return FilterReply.DENY;
+    }
+}
@@ -0,0 +1,104 @@
+package com.ironlibrary.user_service.logging;
+
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Flujo de auditoría de las escrituras sobre usuarios.
+ * Cada evento se emite tras el commit como un registro estructurado
+ * (pares clave-valor) en el logger AUDIT_LOGGER, que logback-spring.xml
+ * envía a su propio appender asíncrono sin descartes.
+ */
+@Component
+public class UserAuditLogger {
+
+    public static final String AUDIT_LOGGER = "com.ironlibrary.user_service.audit";
+
+    private static final Logger audit = LoggerFactory.getLogger(AUDIT_LOGGER);
+
+    public void created(User user) {
+        Event event = Event.of("user.created", user);
+        afterCommit(() -> emit(event, "Usuario creado"));
+    }
+
+    public void imported(Collection<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        List<Event> events = users.stream().map(user -> Event.of("user.imported", user)).toList();
+        afterCommit(() -> events.forEach(event -> emit(event, "Usuario importado")));
+    }
+
+    public void updated(User user) {
+        Event event = Event.of("user.updated", user);
+        afterCommit(() -> emit(event, "Usuario actualizado"));
+    }
+
+    public void patched(User user) {
+        Event event = Event.of("user.patched", user);
+        afterCommit(() -> emit(event, "Usuario actualizado parcialmente"));
+    }
+
+    public void statusChanged(User user) {
+        Event event = Event.of("user.status-changed", user);
+        afterCommit(() -> emit(event, "Estado del usuario cambiado"));
+    }
+
+    public void membershipChanged(User user, MembershipType previous) {
+        Event event = Event.of("user.membership-changed", user);
+        afterCommit(() -> audit.atInfo()
+                .addKeyValue("event", event.name())
+                .addKeyValue("userId", event.userId())
+                .addKeyValue("version", event.version())
+                .addKeyValue("previousMembershipType", previous)
+                .addKeyValue("membershipType", event.membershipType())
+                .log("Membresía del usuario cambiada"));
+    }
+
+    public void deleted(User user) {
+        Event event = Event.of("user.deleted", user);
+        afterCommit(() -> emit(event, "Usuario eliminado"));
+    }
+
+    private static void emit(Event event, String message) {
+        audit.atInfo()
+                .addKeyValue("event", event.name())
+                .addKeyValue("userId", event.userId())
+                .addKeyValue("version", event.version())
+                .addKeyValue("membershipType", event.membershipType())
+                .addKeyValue("active", event.active())
+                .log(message);
+    }
+
+    /**
+     * Datos del usuario capturados en el momento de la escritura, ya que la
+     * entidad puede seguir cambiando antes del commit
+     */
+    private record Event(String name, Long userId, Long version, MembershipType membershipType, Boolean active) {
+
+        static Event of(String name, User user) {
+            return new Event(name, user.getId(), user.getVersion(), user.getMembershipType(), user.getIsActive());
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.ironlibrary.user_service.metrics;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Cuenta las sentencias SQL que Hibernate prepara en el hilo actual mientras
+ * hay una medición abierta (una petición HTTP, ver QueryCountFilter).
+ * Las inserciones por lotes con JdbcTemplate no pasan por Hibernate y no se cuentan.
+ */
+public class QueryCounter implements StatementInspector {
+
+    private static final ThreadLocal<int[]> CURRENT = new ThreadLocal<>();
+
+    @Override
+    public String inspect(String sql) {
+        int[] count = CURRENT.get();
+        if (count != null) {
+            count[0]++;
+        }
+        return sql;
+    }
+
+    /**
+     * Empezar a contar en el hilo actual
+     */
+    public void start() {
+        CURRENT.set(new int[1]);
+    }
+
+    /**
+     * Terminar la medición del hilo actual
+     *
+     * @return sentencias contadas desde start()
+     */
+    public int stop() {
+        int[] count = CURRENT.get();
+        CURRENT.remove();
+        return count != null ? count[0] : 0;
+    }
+}
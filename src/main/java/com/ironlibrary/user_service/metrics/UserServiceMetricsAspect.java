@@ -0,0 +1,68 @@
+package com.ironlibrary.user_service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Métricas de cada operación pública de UserService y UserImportService:
+ * latencia (con percentiles p50/p99 e histograma) y errores por tipo de excepción.
+ * Se ejecuta por fuera de @Transactional para incluir el commit en la medida.
+ */
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@RequiredArgsConstructor
+public class UserServiceMetricsAspect {
+
+    /**
+     * Temporizador por operación, etiquetado con el resultado y la excepción
+     */
+    public static final String OPERATIONS_TIMER = "users.service.operations";
+
+    /**
+     * Contador de errores por operación y tipo de excepción
+     */
+    public static final String ERRORS_COUNTER = "users.service.errors";
+
+    private static final String NO_EXCEPTION = "none";
+
+    private final MeterRegistry meterRegistry;
+
+    @Around("execution(public * com.ironlibrary.user_service.service.UserService.*(..)) || " +
+            "execution(public * com.ironlibrary.user_service.service.UserImportService.*(..))")
+    public Object measure(ProceedingJoinPoint joinPoint) throws Throwable {
+        String operation = joinPoint.getSignature().getDeclaringType().getSimpleName()
+                + "." + joinPoint.getSignature().getName();
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String exception = NO_EXCEPTION;
+        try {
+            return joinPoint.proceed();
+        } catch (Throwable ex) {
+            exception = ex.getClass().getSimpleName();
+            Counter.builder(ERRORS_COUNTER)
+                    .description("Errores de las operaciones de usuarios por tipo de excepción")
+                    .tag("operation", operation)
+                    .tag("exception", exception)
+                    .register(meterRegistry)
+                    .increment();
+            throw ex;
+        } finally {
+            sample.stop(Timer.builder(OPERATIONS_TIMER)
+                    .description("Latencia de las operaciones de usuarios")
+                    .tag("operation", operation)
+                    .tag("outcome", NO_EXCEPTION.equals(exception) ? "success" : "error")
+                    .tag("exception", exception)
+                    .publishPercentiles(0.5, 0.99)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+}
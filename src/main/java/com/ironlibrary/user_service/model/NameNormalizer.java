@@ -0,0 +1,52 @@
+package com.ironlibrary.user_service.model;
+
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Normalización de nombres para el índice de búsqueda:
+ * minúsculas, sin acentos ni diéresis ("Núñez" -> "nunez") y separados en tokens
+ */
+public final class NameNormalizer {
+
+    /**
+     * Longitud máxima de un token (coincide con la columna user_name_tokens.token)
+     */
+    public static final int MAX_TOKEN_LENGTH = 50;
+
+    /**
+     * Máximo de tokens indexados por nombre
+     */
+    public static final int MAX_TOKENS = 10;
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    private NameNormalizer() {
+    }
+
+    /**
+     * Obtener los tokens normalizados de un nombre, sin repetir y en orden de aparición
+     */
+    public static Set<String> tokens(String name) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (name == null) {
+            return tokens;
+        }
+
+        String folded = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+            if (tokens.size() == MAX_TOKENS) {
+                break;
+            }
+        }
+        return tokens;
+    }
+}
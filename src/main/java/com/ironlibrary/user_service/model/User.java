@@ -1,22 +1,39 @@
 package com.ironlibrary.user_service.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.OptimisticLock;
 
 import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
 
 /**
- * Modelo User - Representa un usuario en el sistema
+ * Modelo User - Representa un usuario en el sistema.
+ * Con @DynamicUpdate los UPDATE solo incluyen las columnas modificadas.
  */
 @Entity
-@Table(name = "users")
+@DynamicUpdate
+@Table(name = "users",
+        uniqueConstraints = @UniqueConstraint(name = User.EMAIL_UNIQUE_CONSTRAINT, columnNames = "email"))
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class User {
 
+    /**
+     * Nombre de la restricción única sobre el email, usado para traducir sus violaciones
+     */
+    public static final String EMAIL_UNIQUE_CONSTRAINT = "uk_users_email";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -24,7 +41,7 @@ public class User {
     @Column(nullable = false, length = 100)
     private String name;
 
-    @Column(unique = true, nullable = false, length = 150)
+    @Column(nullable = false, length = 150)
     private String email;
 
     @Enumerated(EnumType.STRING)
@@ -43,33 +60,88 @@ public class User {
     @Column(name = "address", length = 255)
     private String address;
 
+    /**
+     * Versión para el bloqueo optimista; se expone como ETag en la API
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Long version;
+
+    /**
+     * Tokens normalizados del nombre para la búsqueda indexada (ver NameNormalizer).
+     * Se mantienen al asignar el nombre; no forman parte de la API.
+     */
+    @ElementCollection(fetch = FetchType.LAZY)
+    @CollectionTable(name = "user_name_tokens",
+            joinColumns = @JoinColumn(name = "user_id"),
+            indexes = @Index(name = "idx_user_name_tokens_token", columnList = "token, user_id"))
+    @Column(name = "token", nullable = false, length = NameNormalizer.MAX_TOKEN_LENGTH)
+    @OptimisticLock(excluded = true)
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private Set<String> nameTokens = new HashSet<>();
+
+    /**
+     * Asignar el nombre y recalcular sus tokens de búsqueda si cambia
+     */
+    public void setName(String name) {
+        if (!Objects.equals(this.name, name)) {
+            this.name = name;
+            reindexName();
+        }
+    }
+
+    /**
+     * Recalcular los tokens de búsqueda a partir del nombre actual
+     */
+    public void reindexName() {
+        Set<String> tokens = NameNormalizer.tokens(name);
+        if (nameTokens == null) {
+            nameTokens = new HashSet<>();
+        }
+        if (!nameTokens.equals(tokens)) {
+            nameTokens.retainAll(tokens);
+            nameTokens.addAll(tokens);
+        }
+    }
+
+    @PrePersist
+    void indexNameOnPersist() {
+        reindexName();
+    }
+
     /**
      * Verifica si el usuario puede pedir libros prestados
      * @return true si el usuario está activo y tiene membresía válida
      */
     public boolean canBorrowBooks() {
-        return isActive != null && isActive && membershipType != null;
+        return canBorrowBooks(isActive, membershipType);
+    }
+
+    /**
+     * Regla de préstamo a partir del estado y la membresía, para las proyecciones
+     * y eventos que no tienen la entidad. En consultas, UserSpecifications.canBorrow().
+     */
+    public static boolean canBorrowBooks(Boolean isActive, MembershipType membershipType) {
+        return Boolean.TRUE.equals(isActive) && membershipType != null;
     }
 
     /**
      * Obtiene el límite de libros que puede tener prestados según su membresía
+     * (definido en MembershipType)
      * @return número máximo de libros
      */
     public int getMaxBooksAllowed() {
-        if (membershipType == null) return 0;
-
-        return switch (membershipType) {
-            case BASIC -> 3;
-            case PREMIUM -> 10;
-            case STUDENT -> 5;
-        };
+        return membershipType != null ? membershipType.getMaxBooks() : 0;
     }
 
     /**
      * Constructor para crear un usuario básico
      */
     public User(String name, String email, MembershipType membershipType) {
-        this.name = name;
+        setName(name);
         this.email = email;
         this.membershipType = membershipType;
         this.isActive = true;
@@ -0,0 +1,15 @@
+package com.ironlibrary.user_service.repository;
+
+import com.ironlibrary.user_service.model.MembershipType;
+
+/**
+ * Proyección con el número de usuarios por tipo de membresía y estado activo
+ */
+public interface MembershipStatusCount {
+
+    MembershipType getMembershipType();
+
+    Boolean getIsActive();
+
+    long getTotal();
+}
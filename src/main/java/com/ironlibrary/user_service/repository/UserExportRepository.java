@@ -0,0 +1,17 @@
+package com.ironlibrary.user_service.repository;
+
+import com.ironlibrary.user_service.model.User;
+
+import java.util.stream.Stream;
+
+/**
+ * Recorrido de la tabla completa para la exportación
+ */
+public interface UserExportRepository {
+
+    /**
+     * Recorrer todos los usuarios por ID con un cursor de solo avance.
+     * Debe consumirse dentro de una transacción y cerrarse al terminar.
+     */
+    Stream<User> streamAllForExport();
+}
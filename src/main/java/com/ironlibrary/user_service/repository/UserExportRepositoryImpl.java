@@ -0,0 +1,36 @@
+package com.ironlibrary.user_service.repository;
+
+import com.ironlibrary.user_service.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.springframework.beans.factory.annotation.Value;
+
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.HibernateHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.HibernateHints.HINT_READ_ONLY;
+
+/**
+ * Implementación de UserExportRepository.
+ * El tamaño de fetch solo se aplica a esta consulta y depende del driver
+ * (user-service.export.fetch-size): con MySQL, Integer.MIN_VALUE activa el modo
+ * streaming de Connector/J, que lee las filas una a una sin useCursorFetch y
+ * sin cargar el resultado entero; H2 solo admite valores positivos.
+ * Mientras el Stream está abierto la conexión no puede ejecutar otras sentencias.
+ */
+class UserExportRepositoryImpl implements UserExportRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${user-service.export.fetch-size:500}")
+    private int fetchSize;
+
+    @Override
+    public Stream<User> streamAllForExport() {
+        return entityManager.createQuery("SELECT u FROM User u ORDER BY u.id", User.class)
+                .setHint(HINT_FETCH_SIZE, fetchSize)
+                .setHint(HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+}
@@ -0,0 +1,39 @@
+package com.ironlibrary.user_service.repository;
+
+import com.ironlibrary.user_service.dto.UserSummary;
+import com.ironlibrary.user_service.model.User;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consultas de usuarios filtradas con Specification que seleccionan solo algunas
+ * columnas: los campos pedidos (sparse fieldsets) o la proyección UserSummary
+ */
+public interface UserFieldsRepository {
+
+    /**
+     * Atributos de User que se pueden seleccionar
+     */
+    Set<String> SELECTABLE_FIELDS = Set.of(
+            "id", "name", "email", "membershipType", "isActive", "registrationDate", "phone", "address", "version");
+
+    /**
+     * Seleccionar los campos indicados de los usuarios que cumplen el filtro,
+     * ordenados por ID. Cada fila es un mapa campo → valor en el orden de fields.
+     *
+     * @param fields atributos de SELECTABLE_FIELDS
+     * @param after  cursor keyset (solo IDs mayores), o null para empezar desde el principio
+     */
+    List<Map<String, Object>> findFields(Specification<User> filter, List<String> fields, Long after, Limit limit);
+
+    /**
+     * Resúmenes de los usuarios que cumplen el filtro, ordenados por ID
+     *
+     * @param after cursor keyset (solo IDs mayores), o null para empezar desde el principio
+     */
+    List<UserSummary> findSummaries(Specification<User> filter, Long after, Limit limit);
+}
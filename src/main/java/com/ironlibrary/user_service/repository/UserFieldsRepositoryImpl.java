@@ -0,0 +1,95 @@
+package com.ironlibrary.user_service.repository;
+
+import com.ironlibrary.user_service.dto.UserSummary;
+import com.ironlibrary.user_service.model.User;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Implementación de UserFieldsRepository con la Criteria API.
+ * El SELECT se construye con solo las columnas pedidas y el resultado se lee
+ * como Tuple o UserSummary, sin crear entidades gestionadas.
+ */
+class UserFieldsRepositoryImpl implements UserFieldsRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Map<String, Object>> findFields(Specification<User> filter, List<String> fields, Long after, Limit limit) {
+        for (String field : fields) {
+            if (!SELECTABLE_FIELDS.contains(field)) {
+                throw new IllegalArgumentException("Campo no seleccionable: " + field);
+            }
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<User> root = query.from(User.class);
+
+        List<Selection<?>> selections = new ArrayList<>(fields.size());
+        for (String field : fields) {
+            selections.add(root.get(field).alias(field));
+        }
+        query.multiselect(selections);
+
+        List<Tuple> tuples = page(query, root, cb, filter, after, limit).getResultList();
+        List<Map<String, Object>> rows = new ArrayList<>(tuples.size());
+        for (Tuple tuple : tuples) {
+            Map<String, Object> row = new LinkedHashMap<>();
+            for (String field : fields) {
+                row.put(field, tuple.get(field));
+            }
+            rows.add(row);
+        }
+        return rows;
+    }
+
+    @Override
+    public List<UserSummary> findSummaries(Specification<User> filter, Long after, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<UserSummary> query = cb.createQuery(UserSummary.class);
+        Root<User> root = query.from(User.class);
+        query.select(cb.construct(UserSummary.class, root.get("id"), root.get("name"), root.get("email"),
+                root.get("membershipType"), root.get("isActive")));
+
+        return page(query, root, cb, filter, after, limit).getResultList();
+    }
+
+    /**
+     * Aplicar el filtro, el cursor keyset, el orden por ID y el límite
+     */
+    private <T> TypedQuery<T> page(CriteriaQuery<T> query, Root<User> root, CriteriaBuilder cb,
+                                   Specification<User> filter, Long after, Limit limit) {
+        List<Predicate> predicates = new ArrayList<>(2);
+        Predicate filterPredicate = filter.toPredicate(root, query, cb);
+        if (filterPredicate != null) {
+            predicates.add(filterPredicate);
+        }
+        if (after != null) {
+            predicates.add(cb.greaterThan(root.get("id"), after));
+        }
+        query.where(predicates.toArray(Predicate[]::new));
+        query.orderBy(cb.asc(root.get("id")));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query);
+        if (limit.isLimited()) {
+            typedQuery.setMaxResults(limit.max());
+        }
+        return typedQuery;
+    }
+}
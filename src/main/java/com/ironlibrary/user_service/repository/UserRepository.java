@@ -1,21 +1,30 @@
 package com.ironlibrary.user_service.repository;
 
+import com.ironlibrary.user_service.dto.UserSummary;
 import com.ironlibrary.user_service.model.MembershipType;
 import com.ironlibrary.user_service.model.User;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
+
 /**
- * Repositorio para operaciones CRUD de User
+ * Repositorio para operaciones CRUD de User.
+ * Los métodos findSummaries* devuelven la proyección UserSummary: solo
+ * seleccionan sus columnas y no crean entidades gestionadas.
  */
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, JpaSpecificationExecutor<User>,
+        UserSearchRepository, UserFieldsRepository, UserExportRepository {
 
     /**
      * Buscar usuario por email
@@ -37,11 +46,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     List<User> findByIsActiveFalse();
 
-    /**
-     * Buscar usuarios por nombre (búsqueda insensible a mayúsculas)
-     */
-    List<User> findByNameContainingIgnoreCase(String name);
-
     /**
      * Buscar usuarios registrados entre fechas
      */
@@ -58,6 +62,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("SELECT COUNT(u) FROM User u WHERE u.membershipType = :membershipType")
     Long countByMembershipType(@Param("membershipType") MembershipType membershipType);
 
+    /**
+     * Contar usuarios agrupados por tipo de membresía y estado en una sola consulta
+     */
+    @Query("SELECT u.membershipType AS membershipType, u.isActive AS isActive, COUNT(u) AS total " +
+            "FROM User u GROUP BY u.membershipType, u.isActive")
+    List<MembershipStatusCount> countByMembershipTypeAndStatus();
+
     /**
      * Contar usuarios activos
      */
@@ -69,6 +80,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
      */
     boolean existsByEmail(String email);
 
+    /**
+     * Obtener cuáles de los emails indicados ya están registrados
+     */
+    @Query("SELECT u.email FROM User u WHERE u.email IN :emails")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     /**
      * Buscar usuarios registrados hoy
      */
@@ -76,8 +93,86 @@ public interface UserRepository extends JpaRepository<User, Long> {
     List<User> findUsersRegisteredToday();
 
     /**
-     * Buscar usuarios que pueden pedir libros prestados
+     * Buscar usuarios que pueden pedir libros prestados (UserSpecifications.canBorrow())
+     */
+    default List<User> findUsersWhoCanBorrow() {
+        return findAll(UserSpecifications.canBorrow());
+    }
+
+    /**
+     * Resúmenes de todos los usuarios ordenados por ID
+     */
+    List<UserSummary> findSummariesByOrderByIdAsc();
+
+    /**
+     * Página de resúmenes de usuarios con ID mayor que el cursor
+     */
+    List<UserSummary> findSummariesByIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    /**
+     * Resúmenes de usuarios activos
+     */
+    List<UserSummary> findSummariesByIsActiveTrueOrderByIdAsc();
+
+    /**
+     * Página de resúmenes de usuarios activos con ID mayor que el cursor
+     */
+    List<UserSummary> findSummariesByIsActiveTrueAndIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    /**
+     * Resúmenes de usuarios inactivos
+     */
+    List<UserSummary> findSummariesByIsActiveFalseOrderByIdAsc();
+
+    /**
+     * Página de resúmenes de usuarios inactivos con ID mayor que el cursor
+     */
+    List<UserSummary> findSummariesByIsActiveFalseAndIdGreaterThanOrderByIdAsc(Long after, Limit limit);
+
+    /**
+     * Resúmenes de usuarios de una membresía
+     */
+    List<UserSummary> findSummariesByMembershipTypeOrderByIdAsc(MembershipType membershipType);
+
+    /**
+     * Página de resúmenes de usuarios de una membresía con ID mayor que el cursor
+     */
+    List<UserSummary> findSummariesByMembershipTypeAndIdGreaterThanOrderByIdAsc(MembershipType membershipType,
+                                                                               Long after, Limit limit);
+
+    /**
+     * Resumen de un usuario por ID, sin cargar la entidad
+     */
+    Optional<UserSummary> findSummaryById(Long id);
+
+    /**
+     * Resúmenes de los usuarios con los IDs indicados (sin orden garantizado)
+     */
+    List<UserSummary> findSummariesByIdIn(Collection<Long> ids);
+
+    /**
+     * Invertir el estado activo de un usuario en una única sentencia.
+     * Si se indica expectedVersion, solo se aplica cuando coincide con la versión actual.
+     *
+     * @return filas modificadas (0 si el usuario no existe o la versión no coincide)
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.isActive = CASE WHEN u.isActive = true THEN false ELSE true END, " +
+            "u.version = u.version + 1 " +
+            "WHERE u.id = :id AND (:expectedVersion IS NULL OR u.version = :expectedVersion)")
+    int toggleActive(@Param("id") Long id, @Param("expectedVersion") Long expectedVersion);
+
+    /**
+     * Cambiar la membresía en una única sentencia, solo si es distinta de la actual.
+     * Si se indica expectedVersion, solo se aplica cuando coincide con la versión actual.
+     *
+     * @return filas modificadas (0 si el usuario no existe, ya tiene esa membresía o la versión no coincide)
      */
-    @Query("SELECT u FROM User u WHERE u.isActive = true AND u.membershipType IS NOT NULL")
-    List<User> findUsersWhoCanBorrow();
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE User u SET u.membershipType = :newType, u.version = u.version + 1 " +
+            "WHERE u.id = :id AND u.membershipType <> :newType " +
+            "AND (:expectedVersion IS NULL OR u.version = :expectedVersion)")
+    int changeMembershipType(@Param("id") Long id,
+                             @Param("newType") MembershipType newType,
+                             @Param("expectedVersion") Long expectedVersion);
 }
@@ -0,0 +1,19 @@
+package com.ironlibrary.user_service.repository;
+
+import java.util.List;
+
+/**
+ * Búsqueda de usuarios por nombre sobre el índice de tokens (user_name_tokens)
+ */
+public interface UserSearchRepository {
+
+    /**
+     * Buscar los IDs de usuarios cuyo nombre contiene todos los tokens indicados
+     * (coincidencia exacta o por prefijo), ordenados por relevancia: las
+     * coincidencias exactas puntúan más que las de prefijo; a igual puntuación,
+     * por ID.
+     *
+     * @param tokens tokens ya normalizados (ver NameNormalizer)
+     */
+    List<Long> searchIdsByNameTokens(List<String> tokens, int offset, int limit);
+}
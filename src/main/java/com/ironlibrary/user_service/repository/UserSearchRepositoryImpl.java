@@ -0,0 +1,59 @@
+package com.ironlibrary.user_service.repository;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+
+import java.util.List;
+
+/**
+ * Implementación de UserSearchRepository con SQL nativo.
+ * Cada token se resuelve con un rango sobre el índice (token, user_id)
+ * (token LIKE 'prefijo%'), sin LOWER() ni comodines al inicio.
+ */
+class UserSearchRepositoryImpl implements UserSearchRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Long> searchIdsByNameTokens(List<String> tokens, int offset, int limit) {
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+
+        StringBuilder where = new StringBuilder();
+        StringBuilder score = new StringBuilder();
+        StringBuilder having = new StringBuilder();
+        for (int i = 0; i < tokens.size(); i++) {
+            if (i > 0) {
+                where.append(" OR ");
+                score.append(" + ");
+                having.append(" AND ");
+            }
+            where.append("t.token LIKE :p").append(i);
+            score.append("SUM(CASE WHEN t.token = :t").append(i)
+                    .append(" THEN 2 WHEN t.token LIKE :p").append(i).append(" THEN 1 ELSE 0 END)");
+            having.append("SUM(CASE WHEN t.token LIKE :p").append(i).append(" THEN 1 ELSE 0 END) > 0");
+        }
+
+        String sql = "SELECT t.user_id FROM user_name_tokens t" +
+                " WHERE " + where +
+                " GROUP BY t.user_id" +
+                " HAVING " + having +
+                " ORDER BY " + score + " DESC, t.user_id" +
+                " LIMIT :limit OFFSET :offset";
+
+        Query query = entityManager.createNativeQuery(sql);
+        for (int i = 0; i < tokens.size(); i++) {
+            // Los tokens normalizados solo contienen [a-z0-9]: no hay comodines que escapar
+            query.setParameter("t" + i, tokens.get(i));
+            query.setParameter("p" + i, tokens.get(i) + "%");
+        }
+        query.setParameter("limit", limit);
+        query.setParameter("offset", offset);
+
+        List<?> rows = query.getResultList();
+        return rows.stream().map(row -> ((Number) row).longValue()).toList();
+    }
+}
@@ -0,0 +1,49 @@
+package com.ironlibrary.user_service.repository;
+
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.Collection;
+
+/**
+ * Filtros de usuarios para las consultas con Specification
+ * (los mismos criterios que los métodos derivados de UserRepository)
+ */
+public final class UserSpecifications {
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> all() {
+        return (root, query, cb) -> null;
+    }
+
+    public static Specification<User> hasId(Long id) {
+        return (root, query, cb) -> cb.equal(root.get("id"), id);
+    }
+
+    public static Specification<User> hasIdIn(Collection<Long> ids) {
+        return (root, query, cb) -> root.get("id").in(ids);
+    }
+
+    public static Specification<User> hasEmail(String email) {
+        return (root, query, cb) -> cb.equal(root.get("email"), email);
+    }
+
+    public static Specification<User> isActive(boolean active) {
+        return (root, query, cb) -> cb.equal(root.get("isActive"), active);
+    }
+
+    public static Specification<User> hasMembershipType(MembershipType membershipType) {
+        return (root, query, cb) -> cb.equal(root.get("membershipType"), membershipType);
+    }
+
+    /**
+     * Usuarios que pueden pedir libros prestados: la regla de User.canBorrowBooks()
+     * como condición de consulta, la única que usan los listados
+     */
+    public static Specification<User> canBorrow() {
+        return isActive(true).and((root, query, cb) -> cb.isNotNull(root.get("membershipType")));
+    }
+}
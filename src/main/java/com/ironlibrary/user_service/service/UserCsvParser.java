@@ -0,0 +1,134 @@
+package com.ironlibrary.user_service.service;
+
+import com.ironlibrary.user_service.dto.UserImportRow;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Lector de CSV para la importación masiva de usuarios.
+ * La primera línea es la cabecera; columnas obligatorias: name, email y
+ * membershipType. Opcionales: isActive, phone y address. Admite campos
+ * entre comillas dobles con comas y comillas escapadas ("").
+ */
+final class UserCsvParser {
+
+    private UserCsvParser() {
+    }
+
+    static List<UserImportRow> parse(String csv) {
+        List<List<String>> records = readRecords(csv == null ? "" : csv);
+        if (records.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Integer> columns = new HashMap<>();
+        List<String> header = records.get(0);
+        for (int i = 0; i < header.size(); i++) {
+            columns.put(normalizeHeader(header.get(i)), i);
+        }
+        for (String required : List.of("name", "email", "membershiptype")) {
+            if (!columns.containsKey(required)) {
+                throw new IllegalArgumentException("Falta la columna obligatoria en el CSV: " + required);
+            }
+        }
+
+        List<UserImportRow> rows = new ArrayList<>(records.size() - 1);
+        for (List<String> record : records.subList(1, records.size())) {
+            rows.add(toRow(record, columns));
+        }
+        return rows;
+    }
+
+    private static UserImportRow toRow(List<String> record, Map<String, Integer> columns) {
+        User user = new User();
+        user.setName(value(record, columns, "name"));
+        user.setEmail(value(record, columns, "email"));
+        user.setPhone(value(record, columns, "phone"));
+        user.setAddress(value(record, columns, "address"));
+
+        String membership = value(record, columns, "membershiptype");
+        if (membership != null) {
+            try {
+                user.setMembershipType(MembershipType.valueOf(membership.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                return UserImportRow.invalid("Tipo de membresía no válido: " + membership);
+            }
+        }
+
+        String active = value(record, columns, "isactive");
+        if (active != null) {
+            if (!active.equalsIgnoreCase("true") && !active.equalsIgnoreCase("false")) {
+                return UserImportRow.invalid("Valor de isActive no válido: " + active);
+            }
+            user.setIsActive(Boolean.parseBoolean(active));
+        }
+
+        return UserImportRow.of(user);
+    }
+
+    private static String value(List<String> record, Map<String, Integer> columns, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static String normalizeHeader(String header) {
+        return header.trim().replace("_", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Separar el texto en registros y campos, ignorando las líneas vacías
+     */
+    private static List<List<String>> readRecords(String csv) {
+        List<List<String>> records = new ArrayList<>();
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < csv.length(); i++) {
+            char c = csv.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < csv.length() && csv.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n' || c == '\r') {
+                if (c == '\r' && i + 1 < csv.length() && csv.charAt(i + 1) == '\n') {
+                    i++;
+                }
+                endRecord(records, fields, field);
+                fields = new ArrayList<>();
+            } else {
+                field.append(c);
+            }
+        }
+        endRecord(records, fields, field);
+        return records;
+    }
+
+    private static void endRecord(List<List<String>> records, List<String> fields, StringBuilder field) {
+        fields.add(field.toString());
+        field.setLength(0);
+        if (fields.size() > 1 || !fields.get(0).isBlank()) {
+            records.add(fields);
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.ironlibrary.user_service.service;
+
+import com.ironlibrary.user_service.repository.UserFieldsRepository;
+
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Interpretación del parámetro fields (p. ej. "name,email,membershipType").
+ * El ID se incluye siempre: identifica cada fila y sirve de cursor.
+ */
+final class UserFieldSelection {
+
+    private UserFieldSelection() {
+    }
+
+    static List<String> parse(String fields) {
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        if (fields != null) {
+            for (String field : fields.split(",")) {
+                String name = field.trim();
+                if (name.isEmpty()) {
+                    continue;
+                }
+                if (!UserFieldsRepository.SELECTABLE_FIELDS.contains(name)) {
+                    throw new IllegalArgumentException("Campo desconocido en fields: " + name);
+                }
+                selected.add(name);
+            }
+        }
+        return List.copyOf(selected);
+    }
+}
@@ -0,0 +1,46 @@
+package com.ironlibrary.user_service.service;
+
+import com.ironlibrary.user_service.model.MembershipType;
+
+import java.util.Objects;
+
+/**
+ * Filtro de un listado de usuarios. El servicio elige la consulta que le
+ * corresponde: la indexada que devuelve UserSummary o, con fields, la que
+ * selecciona solo los campos pedidos.
+ *
+ * @param membershipType membresía buscada; solo con Kind.MEMBERSHIP
+ */
+public record UserFilter(Kind kind, MembershipType membershipType) {
+
+    public enum Kind {
+        ALL, ACTIVE, INACTIVE, CAN_BORROW, MEMBERSHIP
+    }
+
+    public UserFilter {
+        Objects.requireNonNull(kind);
+        if ((kind == Kind.MEMBERSHIP) != (membershipType != null)) {
+            throw new IllegalArgumentException("La membresía solo se indica en el filtro MEMBERSHIP");
+        }
+    }
+
+    public static UserFilter all() {
+        return new UserFilter(Kind.ALL, null);
+    }
+
+    public static UserFilter active() {
+        return new UserFilter(Kind.ACTIVE, null);
+    }
+
+    public static UserFilter inactive() {
+        return new UserFilter(Kind.INACTIVE, null);
+    }
+
+    public static UserFilter canBorrow() {
+        return new UserFilter(Kind.CAN_BORROW, null);
+    }
+
+    public static UserFilter membership(MembershipType membershipType) {
+        return new UserFilter(Kind.MEMBERSHIP, membershipType);
+    }
+}
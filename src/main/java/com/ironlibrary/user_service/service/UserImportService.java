@@ -0,0 +1,324 @@
+package com.ironlibrary.user_service.service;
+
+import com.ironlibrary.user_service.cache.UserCacheInvalidationBus;
+import com.ironlibrary.user_service.dto.ImportReport;
+import com.ironlibrary.user_service.dto.ImportRowResult;
+import com.ironlibrary.user_service.dto.ImportStatus;
+import com.ironlibrary.user_service.dto.UserImportRow;
+import com.ironlibrary.user_service.events.UserChangeType;
+import com.ironlibrary.user_service.events.UserOutbox;
+import com.ironlibrary.user_service.exception.ConstraintViolations;
+import com.ironlibrary.user_service.logging.UserAuditLogger;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcOperations;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Connection;
+import java.sql.Savepoint;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Servicio para la importación masiva de usuarios.
+ * Los emails existentes se comprueban con una consulta por bloque y las
+ * inserciones se envían en lotes JDBC. User usa GenerationType.IDENTITY,
+ * que impide a Hibernate agrupar inserciones, por eso este camino escribe
+ * directamente con JDBC (con rewriteBatchedStatements=true en MySQL).
+ * Un email insertado por otra escritura después de la comprobación no aborta
+ * la importación: esa fila se informa como EMAIL_ALREADY_EXISTS.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+@Transactional
+public class UserImportService {
+
+    /**
+     * Máximo de filas aceptadas en una importación
+     */
+    public static final int MAX_IMPORT_ROWS = 50_000;
+
+    /**
+     * Máximo de valores por cláusula IN al comprobar emails existentes
+     */
+    private static final int EMAIL_LOOKUP_CHUNK = 1000;
+
+    private static final String INSERT_SQL =
+            "INSERT INTO users (name, email, membership_type, is_active, registration_date, phone, address, version) " +
+            "VALUES (:name, :email, :membershipType, :isActive, :registrationDate, :phone, :address, 0)";
+
+    private static final String INSERT_TOKEN_SQL =
+            "INSERT INTO user_name_tokens (user_id, token) VALUES (:userId, :token)";
+
+    private final UserRepository userRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final UserStatsCounters userStatsCounters;
+    private final UserAuditLogger userAuditLogger;
+    private final UserCacheInvalidationBus userCacheInvalidationBus;
+    private final UserOutbox userOutbox;
+
+    @Value("${user-service.import.batch-size:500}")
+    private int batchSize = 500;
+
+    /**
+     * Importar usuarios recibidos como JSON
+     */
+    public ImportReport importUsers(List<User> users) {
+        List<UserImportRow> rows = new ArrayList<>(users == null ? 0 : users.size());
+        if (users != null) {
+            for (User user : users) {
+                rows.add(user != null ? UserImportRow.of(user) : UserImportRow.invalid("Fila vacía"));
+            }
+        }
+        return importRows(rows);
+    }
+
+    /**
+     * Importar usuarios recibidos como CSV
+     */
+    public ImportReport importCsv(String csv) {
+        return importRows(UserCsvParser.parse(csv));
+    }
+
+    private ImportReport importRows(List<UserImportRow> rows) {
+        if (rows.size() > MAX_IMPORT_ROWS) {
+            throw new IllegalArgumentException("La importación no puede superar " + MAX_IMPORT_ROWS + " filas");
+        }
+        log.info("Importando {} usuarios", rows.size());
+
+        ImportRowResult[] results = new ImportRowResult[rows.size()];
+        List<Integer> candidates = new ArrayList<>();
+        Set<String> seenEmails = new HashSet<>();
+
+        for (int i = 0; i < rows.size(); i++) {
+            UserImportRow row = rows.get(i);
+            User user = row.getUser();
+            String email = user != null ? user.getEmail() : null;
+
+            String error = row.getError() != null ? row.getError() : validate(user);
+            if (error != null) {
+                results[i] = new ImportRowResult(i + 1, email, ImportStatus.INVALID, null, error);
+            } else if (!seenEmails.add(emailKey(email))) {
+                results[i] = new ImportRowResult(i + 1, email, ImportStatus.DUPLICATE_IN_FILE, null,
+                        "Email repetido en la importación");
+            } else {
+                candidates.add(i);
+            }
+        }
+
+        Set<String> existingEmails = findExistingEmails(candidates, rows);
+        List<User> toInsert = new ArrayList<>();
+        List<Integer> toInsertRows = new ArrayList<>();
+        for (int index : candidates) {
+            User user = rows.get(index).getUser();
+            if (existingEmails.contains(emailKey(user.getEmail()))) {
+                results[index] = new ImportRowResult(index + 1, user.getEmail(), ImportStatus.EMAIL_ALREADY_EXISTS,
+                        null, "Ya existe un usuario con el email: " + user.getEmail());
+            } else {
+                applyDefaults(user);
+                toInsert.add(user);
+                toInsertRows.add(index);
+            }
+        }
+
+        Set<User> concurrentDuplicates = insertInBatches(toInsert);
+        if (!concurrentDuplicates.isEmpty()) {
+            for (int i = toInsert.size() - 1; i >= 0; i--) {
+                User user = toInsert.get(i);
+                if (concurrentDuplicates.contains(user)) {
+                    int index = toInsertRows.remove(i);
+                    toInsert.remove(i);
+                    results[index] = new ImportRowResult(index + 1, user.getEmail(),
+                            ImportStatus.EMAIL_ALREADY_EXISTS, null,
+                            "Ya existe un usuario con el email: " + user.getEmail());
+                }
+            }
+        }
+        // Los IDs y emails nuevos pueden estar marcados como inexistentes, también en otras réplicas
+        userCacheInvalidationBus.invalidate(toInsert);
+        userStatsCounters.recordCreated(toInsert);
+        userAuditLogger.imported(toInsert);
+        userOutbox.record(UserChangeType.CREATED, toInsert);
+
+        for (int i = 0; i < toInsert.size(); i++) {
+            User user = toInsert.get(i);
+            int index = toInsertRows.get(i);
+            results[index] = new ImportRowResult(index + 1, user.getEmail(), ImportStatus.CREATED, user.getId(), null);
+        }
+
+        int created = toInsert.size();
+        log.info("Importación finalizada: {} creados, {} omitidos", created, rows.size() - created);
+        return new ImportReport(rows.size(), created, rows.size() - created, List.of(results));
+    }
+
+    private Set<String> findExistingEmails(List<Integer> candidates, List<UserImportRow> rows) {
+        Set<String> existing = new HashSet<>();
+        for (int start = 0; start < candidates.size(); start += EMAIL_LOOKUP_CHUNK) {
+            List<String> emails = new ArrayList<>();
+            for (int index : candidates.subList(start, Math.min(start + EMAIL_LOOKUP_CHUNK, candidates.size()))) {
+                emails.add(rows.get(index).getUser().getEmail());
+            }
+            for (String email : userRepository.findExistingEmails(emails)) {
+                existing.add(emailKey(email));
+            }
+        }
+        return existing;
+    }
+
+    /**
+     * Insertar los usuarios en lotes JDBC, asignando a cada uno el ID generado.
+     * Cada lote se ejecuta en un savepoint. Si otra escritura ha insertado uno de
+     * los emails después de comprobarlos, el lote se deshace y se repite fila a fila.
+     *
+     * @return usuarios no insertados porque su email ya existía
+     */
+    private Set<User> insertInBatches(List<User> users) {
+        Set<User> duplicates = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (int start = 0; start < users.size(); start += batchSize) {
+            List<User> batch = users.subList(start, Math.min(start + batchSize, users.size()));
+            if (insertInSavepoint(batch)) {
+                continue;
+            }
+            log.warn("Email duplicado por una escritura concurrente; se reintenta el lote fila a fila");
+            for (User user : batch) {
+                if (!insertInSavepoint(List.of(user))) {
+                    duplicates.add(user);
+                }
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * Insertar un lote dentro de un savepoint JDBC de la transacción en curso
+     * (HibernateJpaDialect no admite transacciones anidadas)
+     *
+     * @return false si algún email ya existía; el savepoint deshace el lote completo
+     */
+    private boolean insertInSavepoint(List<User> batch) {
+        JdbcOperations jdbc = jdbcTemplate.getJdbcOperations();
+        Savepoint savepoint = jdbc.execute((ConnectionCallback<Savepoint>) Connection::setSavepoint);
+        try {
+            insertBatch(batch);
+        } catch (DataIntegrityViolationException e) {
+            if (!ConstraintViolations.isDuplicateEmail(e)) {
+                throw e;
+            }
+            jdbc.execute((ConnectionCallback<Void>) connection -> {
+                connection.rollback(savepoint);
+                return null;
+            });
+            return false;
+        }
+        jdbc.execute((ConnectionCallback<Void>) connection -> {
+            connection.releaseSavepoint(savepoint);
+            return null;
+        });
+        return true;
+    }
+
+    private void insertBatch(List<User> batch) {
+        SqlParameterSource[] params = new SqlParameterSource[batch.size()];
+        for (int i = 0; i < batch.size(); i++) {
+            User user = batch.get(i);
+            params[i] = new MapSqlParameterSource()
+                    .addValue("name", user.getName())
+                    .addValue("email", user.getEmail())
+                    .addValue("membershipType", user.getMembershipType().name())
+                    .addValue("isActive", user.getIsActive())
+                    .addValue("registrationDate", user.getRegistrationDate())
+                    .addValue("phone", user.getPhone())
+                    .addValue("address", user.getAddress());
+        }
+
+        GeneratedKeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(INSERT_SQL, params, keyHolder, new String[]{"id"});
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < batch.size(); i++) {
+            Object key = keys.get(i).values().iterator().next();
+            batch.get(i).setId(((Number) key).longValue());
+            batch.get(i).setVersion(0L);
+        }
+        insertNameTokens(batch);
+    }
+
+    /**
+     * Insertar en lote los tokens de búsqueda del nombre de los usuarios ya insertados
+     */
+    private void insertNameTokens(List<User> users) {
+        List<SqlParameterSource> params = new ArrayList<>();
+        for (User user : users) {
+            user.reindexName();
+            for (String token : user.getNameTokens()) {
+                params.add(new MapSqlParameterSource()
+                        .addValue("userId", user.getId())
+                        .addValue("token", token));
+            }
+        }
+        if (!params.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_TOKEN_SQL, params.toArray(SqlParameterSource[]::new));
+        }
+    }
+
+    private static String validate(User user) {
+        if (user == null) {
+            return "Fila vacía";
+        }
+        if (user.getName() == null || user.getName().isBlank()) {
+            return "El nombre es obligatorio";
+        }
+        if (user.getName().length() > 100) {
+            return "El nombre no puede superar 100 caracteres";
+        }
+        if (user.getEmail() == null || user.getEmail().isBlank()) {
+            return "El email es obligatorio";
+        }
+        if (user.getEmail().length() > 150) {
+            return "El email no puede superar 150 caracteres";
+        }
+        if (user.getMembershipType() == null) {
+            return "El tipo de membresía es obligatorio";
+        }
+        if (user.getPhone() != null && user.getPhone().length() > 20) {
+            return "El teléfono no puede superar 20 caracteres";
+        }
+        if (user.getAddress() != null && user.getAddress().length() > 255) {
+            return "La dirección no puede superar 255 caracteres";
+        }
+        return null;
+    }
+
+    private static void applyDefaults(User user) {
+        user.setId(null);
+        user.setVersion(null);
+        if (user.getIsActive() == null) {
+            user.setIsActive(true);
+        }
+        if (user.getRegistrationDate() == null) {
+            user.setRegistrationDate(LocalDate.now());
+        }
+    }
+
+    private static String emailKey(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,126 @@
+package com.ironlibrary.user_service.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Aplicación de un JSON Merge Patch (RFC 7396) sobre un usuario.
+ * Solo se admiten los campos editables; un valor null borra el campo cuando
+ * es opcional (phone, address). Los setters se invocan únicamente si el valor
+ * cambia, así Hibernate solo marca como sucias las columnas modificadas.
+ */
+final class UserMergePatch {
+
+    /**
+     * Campos que se pueden modificar mediante merge patch
+     */
+    static final Set<String> PATCHABLE_FIELDS =
+            Set.of("name", "email", "membershipType", "isActive", "phone", "address");
+
+    private UserMergePatch() {
+    }
+
+    /**
+     * Aplicar el patch sobre el usuario
+     *
+     * @return true si algún campo cambió
+     */
+    static boolean apply(User user, JsonNode patch) {
+        if (patch == null || !patch.isObject()) {
+            throw new IllegalArgumentException("El merge patch debe ser un objeto JSON");
+        }
+
+        boolean changed = false;
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            String name = field.getKey();
+            JsonNode value = field.getValue();
+
+            switch (name) {
+                case "name" -> {
+                    String newName = requiredText(name, value);
+                    if (!newName.equals(user.getName())) {
+                        user.setName(newName);
+                        changed = true;
+                    }
+                }
+                case "email" -> {
+                    String newEmail = requiredText(name, value);
+                    if (!newEmail.equals(user.getEmail())) {
+                        user.setEmail(newEmail);
+                        changed = true;
+                    }
+                }
+                case "membershipType" -> {
+                    MembershipType newType = membershipType(requiredText(name, value));
+                    if (newType != user.getMembershipType()) {
+                        user.setMembershipType(newType);
+                        changed = true;
+                    }
+                }
+                case "isActive" -> {
+                    if (!value.isBoolean()) {
+                        throw new IllegalArgumentException("El campo isActive debe ser booleano");
+                    }
+                    if (!Objects.equals(value.booleanValue(), user.getIsActive())) {
+                        user.setIsActive(value.booleanValue());
+                        changed = true;
+                    }
+                }
+                case "phone" -> {
+                    String newPhone = optionalText(name, value);
+                    if (!Objects.equals(newPhone, user.getPhone())) {
+                        user.setPhone(newPhone);
+                        changed = true;
+                    }
+                }
+                case "address" -> {
+                    String newAddress = optionalText(name, value);
+                    if (!Objects.equals(newAddress, user.getAddress())) {
+                        user.setAddress(newAddress);
+                        changed = true;
+                    }
+                }
+                default -> throw new IllegalArgumentException("El campo no se puede modificar: " + name);
+            }
+        }
+        return changed;
+    }
+
+    private static String requiredText(String field, JsonNode value) {
+        if (value.isNull()) {
+            throw new IllegalArgumentException("El campo " + field + " no puede ser nulo");
+        }
+        String text = optionalText(field, value);
+        if (text.isBlank()) {
+            throw new IllegalArgumentException("El campo " + field + " no puede estar vacío");
+        }
+        return text;
+    }
+
+    private static String optionalText(String field, JsonNode value) {
+        if (value.isNull()) {
+            return null;
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException("El campo " + field + " debe ser un texto");
+        }
+        return value.textValue();
+    }
+
+    private static MembershipType membershipType(String value) {
+        try {
+            return MembershipType.valueOf(value.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Tipo de membresía no válido: " + value);
+        }
+    }
+}
@@ -1,20 +1,57 @@
 package com.ironlibrary.user_service.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.ironlibrary.user_service.cache.UserCache;
+import com.ironlibrary.user_service.cache.UserCacheInvalidationBus;
+import com.ironlibrary.user_service.dto.BatchValidationResponse;
+import com.ironlibrary.user_service.dto.CursorPage;
+import com.ironlibrary.user_service.dto.UserSummary;
+import com.ironlibrary.user_service.dto.UserValidation;
+import com.ironlibrary.user_service.events.UserChangeType;
+import com.ironlibrary.user_service.events.UserOutbox;
+import com.ironlibrary.user_service.exception.ConstraintViolations;
 import com.ironlibrary.user_service.exception.EmailAlreadyExistsException;
+import com.ironlibrary.user_service.exception.PreconditionFailedException;
 import com.ironlibrary.user_service.exception.UserNotFoundException;
+import com.ironlibrary.user_service.logging.UserAuditLogger;
 import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.NameNormalizer;
 import com.ironlibrary.user_service.model.User;
 import com.ironlibrary.user_service.repository.UserRepository;
+import com.ironlibrary.user_service.repository.UserSpecifications;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 /**
- * Servicio para la lógica de negocio de usuarios
+ * Servicio para la lógica de negocio de usuarios.
+ * Los logs de este servicio son de nivel DEBUG (el controlador ya registra
+ * cada petición); las escrituras se registran en el flujo de auditoría y
+ * en el outbox de eventos de cambio (UserOutbox), en la misma transacción.
  */
 @Service
 @RequiredArgsConstructor
@@ -22,47 +59,186 @@ import java.util.List;
 @Transactional
 public class UserService {
 
+    /**
+     * Máximo de IDs aceptados en una validación en lote
+     */
+    public static final int MAX_BATCH_VALIDATION_SIZE = 1000;
+
+    /**
+     * Tamaño máximo de página para los listados paginados por cursor
+     */
+    public static final int MAX_PAGE_SIZE = 500;
+
+    /**
+     * Tamaño máximo de página en la búsqueda por nombre
+     */
+    public static final int MAX_SEARCH_PAGE_SIZE = 200;
+
+    /**
+     * Máximo de palabras consideradas en la búsqueda por nombre
+     */
+    public static final int MAX_SEARCH_TOKENS = 5;
+
     private final UserRepository userRepository;
+    private final UserCache userCache;
+    private final UserCacheInvalidationBus userCacheInvalidationBus;
+    private final EntityManager entityManager;
+    private final UserStatsCounters userStatsCounters;
+    private final UserAuditLogger userAuditLogger;
+    private final UserOutbox userOutbox;
+    private final PlatformTransactionManager transactionManager;
+
+    /**
+     * Obtener los usuarios que cumplen el filtro
+     */
+    @Transactional(readOnly = true)
+    public List<UserSummary> findUsers(UserFilter filter) {
+        return switch (filter.kind()) {
+            case ALL -> findAllUsers();
+            case ACTIVE -> findActiveUsers();
+            case INACTIVE -> findInactiveUsers();
+            case CAN_BORROW -> findUsersWhoCanBorrow();
+            case MEMBERSHIP -> findByMembershipType(filter.membershipType());
+        };
+    }
+
+    /**
+     * Obtener una página de los usuarios que cumplen el filtro a partir del cursor
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> findUsers(UserFilter filter, Long after, int limit) {
+        return switch (filter.kind()) {
+            case ALL -> findAllUsers(after, limit);
+            case ACTIVE -> findActiveUsers(after, limit);
+            case INACTIVE -> findInactiveUsers(after, limit);
+            case CAN_BORROW -> findUsersWhoCanBorrow(after, limit);
+            case MEMBERSHIP -> findByMembershipType(filter.membershipType(), after, limit);
+        };
+    }
 
     /**
      * Obtener todos los usuarios
      */
     @Transactional(readOnly = true)
-    public List<User> findAllUsers() {
-        log.info("Obteniendo todos los usuarios");
-        return userRepository.findAll();
+    public List<UserSummary> findAllUsers() {
+        log.debug("Obteniendo todos los usuarios");
+        return userRepository.findSummariesByOrderByIdAsc();
     }
 
     /**
-     * Buscar usuario por ID
+     * Obtener una página de usuarios a partir del cursor
      */
     @Transactional(readOnly = true)
-    public User findUserById(Long id) {
-        log.info("Buscando usuario con ID: {}", id);
-        return userRepository.findById(id)
+    public CursorPage<UserSummary> findAllUsers(Long after, int limit) {
+        log.debug("Obteniendo página de usuarios después del ID: {}", after);
+        return fetchPage(after, limit, userRepository::findSummariesByIdGreaterThanOrderByIdAsc, UserSummary::id);
+    }
+
+    /**
+     * Obtener solo los campos indicados (fields=name,email,...) de los usuarios
+     * que cumplen el filtro; la selección se hace en la propia consulta
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findUserFields(UserFilter filter, String fields) {
+        log.debug("Obteniendo campos {} de usuarios", fields);
+        return userRepository.findFields(specification(filter), UserFieldSelection.parse(fields), null, Limit.unlimited());
+    }
+
+    /**
+     * Obtener una página con los campos indicados de los usuarios que cumplen el filtro
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<Map<String, Object>> findUserFields(UserFilter filter, String fields,
+                                                         Long after, int limit) {
+        log.debug("Obteniendo página de campos {} de usuarios después del ID: {}", fields, after);
+        List<String> selected = UserFieldSelection.parse(fields);
+        Specification<User> specification = specification(filter);
+        return fetchPage(after, limit,
+                (cursor, pageLimit) -> userRepository.findFields(specification, selected, cursor, pageLimit),
+                row -> (Long) row.get("id"));
+    }
+
+    private static Specification<User> specification(UserFilter filter) {
+        return switch (filter.kind()) {
+            case ALL -> UserSpecifications.all();
+            case ACTIVE -> UserSpecifications.isActive(true);
+            case INACTIVE -> UserSpecifications.isActive(false);
+            case CAN_BORROW -> UserSpecifications.canBorrow();
+            case MEMBERSHIP -> UserSpecifications.hasMembershipType(filter.membershipType());
+        };
+    }
+
+    /**
+     * Obtener los campos indicados de un usuario por ID
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> findUserFieldsById(Long id, String fields) {
+        log.debug("Obteniendo campos {} del usuario con ID: {}", fields, id);
+        return findSingleUserFields(UserSpecifications.hasId(id), fields)
                 .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con ID: " + id));
     }
 
     /**
-     * Buscar usuario por email
+     * Obtener los campos indicados de un usuario por email
      */
     @Transactional(readOnly = true)
+    public Map<String, Object> findUserFieldsByEmail(String email, String fields) {
+        log.debug("Obteniendo campos {} del usuario con email: {}", fields, email);
+        return findSingleUserFields(UserSpecifications.hasEmail(email), fields)
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con email: " + email));
+    }
+
+    /**
+     * Exportar todos los usuarios recorriéndolos con un cursor de solo avance.
+     * Cada entidad se entrega al consumidor y se desvincula del contexto de
+     * persistencia, de modo que la memoria no crece con el tamaño de la tabla.
+     *
+     * @return número de usuarios exportados
+     */
+    @Transactional(readOnly = true)
+    public long exportUsers(Consumer<User> sink) {
+        log.debug("Exportando todos los usuarios");
+        long exported = 0;
+        try (Stream<User> users = userRepository.streamAllForExport()) {
+            for (User user : (Iterable<User>) users::iterator) {
+                sink.accept(user);
+                entityManager.detach(user);
+                exported++;
+            }
+        }
+        log.debug("Exportación finalizada: {} usuarios", exported);
+        return exported;
+    }
+
+    /**
+     * Buscar usuario por ID (servido desde la caché cuando es posible).
+     * La caché se consulta fuera de transacción: un acierto no toma conexión
+     * del pool, y solo la carga de un fallo abre una transacción de lectura.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public User findUserById(Long id) {
+        log.debug("Buscando usuario con ID: {}", id);
+        return userCache.getById(id, userId -> readOnly(() -> userRepository.findById(userId)))
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con ID: " + id));
+    }
+
+    /**
+     * Buscar usuario por email (servido desde la caché cuando es posible),
+     * igual que findUserById: solo la carga de un fallo abre transacción
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public User findUserByEmail(String email) {
-        log.info("Buscando usuario con email: {}", email);
-        return userRepository.findByEmail(email)
+        log.debug("Buscando usuario con email: {}", email);
+        return userCache.getByEmail(email, key -> readOnly(() -> userRepository.findByEmail(key)))
                 .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con email: " + email));
     }
 
     /**
-     * Guardar nuevo usuario
+     * Guardar nuevo usuario.
+     * La unicidad del email la garantiza la restricción uk_users_email.
      */
     public User saveUser(User user) {
-        log.info("Guardando nuevo usuario: {}", user.getName());
-
-        // Verificar si el email ya existe
-        if (userRepository.existsByEmail(user.getEmail())) {
-            throw new EmailAlreadyExistsException("Ya existe un usuario con el email: " + user.getEmail());
-        }
+        log.debug("Guardando nuevo usuario: {}", user.getName());
 
         // Establecer valores por defecto
         if (user.getIsActive() == null) {
@@ -73,23 +249,26 @@ public class UserService {
             user.setRegistrationDate(LocalDate.now());
         }
 
-        User savedUser = userRepository.save(user);
-        log.info("Usuario guardado exitosamente con ID: {}", savedUser.getId());
+        User savedUser = saveAndFlush(user);
+        userCacheInvalidationBus.invalidate(savedUser);
+        userStatsCounters.recordCreated(savedUser);
+        userAuditLogger.created(savedUser);
+        userOutbox.record(UserChangeType.CREATED, savedUser);
         return savedUser;
     }
 
     /**
-     * Actualizar usuario existente
+     * Actualizar usuario existente.
+     * La unicidad del email la garantiza la restricción uk_users_email.
+     *
+     * @param expectedVersion versión indicada en If-Match, o null si no hay precondición
      */
-    public User updateUser(Long id, User userUpdate) {
-        log.info("Actualizando usuario con ID: {}", id);
-        User existingUser = findUserById(id);
-
-        // Verificar si el nuevo email ya existe en otro usuario
-        if (!existingUser.getEmail().equals(userUpdate.getEmail()) &&
-                userRepository.existsByEmail(userUpdate.getEmail())) {
-            throw new EmailAlreadyExistsException("Ya existe un usuario con el email: " + userUpdate.getEmail());
-        }
+    public User updateUser(Long id, User userUpdate, Long expectedVersion) {
+        log.debug("Actualizando usuario con ID: {}", id);
+        User existingUser = loadUser(id);
+        checkVersion(existingUser, expectedVersion);
+        String previousEmail = existingUser.getEmail();
+        UserStatsCounters.State previousState = UserStatsCounters.State.of(existingUser);
 
         existingUser.setName(userUpdate.getName());
         existingUser.setEmail(userUpdate.getEmail());
@@ -98,8 +277,38 @@ public class UserService {
         existingUser.setPhone(userUpdate.getPhone());
         existingUser.setAddress(userUpdate.getAddress());
 
-        User updatedUser = userRepository.save(existingUser);
-        log.info("Usuario actualizado exitosamente");
+        User updatedUser = saveAndFlush(existingUser);
+        userCacheInvalidationBus.invalidate(updatedUser, previousEmail);
+        userStatsCounters.recordChanged(previousState, UserStatsCounters.State.of(updatedUser));
+        userAuditLogger.updated(updatedUser);
+        userOutbox.record(UserChangeType.UPDATED, updatedUser);
+        return updatedUser;
+    }
+
+    /**
+     * Actualizar parcialmente un usuario con un JSON Merge Patch.
+     * Solo se modifican los campos presentes en el patch; si ninguno cambia
+     * no se escribe nada en la base de datos.
+     *
+     * @param expectedVersion versión indicada en If-Match, o null si no hay precondición
+     */
+    public User patchUser(Long id, JsonNode patch, Long expectedVersion) {
+        log.debug("Aplicando merge patch al usuario con ID: {}", id);
+        User existingUser = loadUser(id);
+        checkVersion(existingUser, expectedVersion);
+        String previousEmail = existingUser.getEmail();
+        UserStatsCounters.State previousState = UserStatsCounters.State.of(existingUser);
+
+        if (!UserMergePatch.apply(existingUser, patch)) {
+            log.debug("Merge patch sin cambios para el usuario con ID: {}", id);
+            return existingUser;
+        }
+
+        User updatedUser = saveAndFlush(existingUser);
+        userCacheInvalidationBus.invalidate(updatedUser, previousEmail);
+        userStatsCounters.recordChanged(previousState, UserStatsCounters.State.of(updatedUser));
+        userAuditLogger.patched(updatedUser);
+        userOutbox.record(UserChangeType.UPDATED, updatedUser);
         return updatedUser;
     }
 
@@ -107,33 +316,68 @@ public class UserService {
      * Eliminar usuario
      */
     public void deleteUser(Long id) {
-        log.info("Eliminando usuario con ID: {}", id);
-        User user = findUserById(id);
+        log.debug("Eliminando usuario con ID: {}", id);
+        User user = loadUser(id);
         userRepository.delete(user);
-        log.info("Usuario eliminado exitosamente");
+        userCacheInvalidationBus.invalidateDeleted(user);
+        userStatsCounters.recordDeleted(UserStatsCounters.State.of(user));
+        userAuditLogger.deleted(user);
+        userOutbox.record(UserChangeType.DELETED, user);
     }
 
     /**
-     * Activar/Desactivar usuario
+     * Activar/Desactivar usuario.
+     * El cambio se hace con un único UPDATE atómico; después se relee la fila
+     * para devolver el estado resultante.
+     *
+     * @param expectedVersion versión indicada en If-Match, o null si no hay precondición
      */
-    public User toggleUserStatus(Long id) {
-        log.info("Cambiando estado del usuario con ID: {}", id);
-        User user = findUserById(id);
-        user.setIsActive(!user.getIsActive());
-        User updatedUser = userRepository.save(user);
-        log.info("Usuario {} {}", updatedUser.getIsActive() ? "activado" : "desactivado", "exitosamente");
+    public User toggleUserStatus(Long id, Long expectedVersion) {
+        log.debug("Cambiando estado del usuario con ID: {}", id);
+        if (userRepository.toggleActive(id, expectedVersion) == 0) {
+            if (expectedVersion != null && userRepository.existsById(id)) {
+                throw versionMismatch(id);
+            }
+            throw new UserNotFoundException("Usuario no encontrado con ID: " + id);
+        }
+        User updatedUser = loadUser(id);
+        UserStatsCounters.State newState = UserStatsCounters.State.of(updatedUser);
+        userCacheInvalidationBus.invalidate(updatedUser);
+        userStatsCounters.recordChanged(
+                new UserStatsCounters.State(newState.membershipType(), !newState.active()), newState);
+        userAuditLogger.statusChanged(updatedUser);
+        userOutbox.record(newState.active() ? UserChangeType.ACTIVATED : UserChangeType.DEACTIVATED, updatedUser);
         return updatedUser;
     }
 
     /**
-     * Cambiar tipo de membresía
+     * Cambiar tipo de membresía.
+     * Como en toggleUserStatus, la única escritura es un UPDATE condicional y después
+     * se relee la fila para devolver el estado resultante. La membresía anterior, que
+     * necesitan las estadísticas y la auditoría, se lee antes sin bloquear la fila; si
+     * otra escritura la cambia entretanto, la reconciliación de UserStatsCounters
+     * corrige la diferencia. Si ya es la pedida, o la versión no coincide, no se escribe nada.
+     *
+     * @param expectedVersion versión indicada en If-Match, o null si no hay precondición
      */
-    public User updateMembershipType(Long id, MembershipType membershipType) {
-        log.info("Actualizando membresía del usuario ID: {} a {}", id, membershipType);
-        User user = findUserById(id);
-        user.setMembershipType(membershipType);
-        User updatedUser = userRepository.save(user);
-        log.info("Membresía actualizada exitosamente");
+    public User updateMembershipType(Long id, MembershipType membershipType, Long expectedVersion) {
+        log.debug("Actualizando membresía del usuario ID: {} a {}", id, membershipType);
+        MembershipType previousType = userRepository.findSummaryById(id)
+                .map(UserSummary::membershipType)
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con ID: " + id));
+        if (previousType == membershipType
+                || userRepository.changeMembershipType(id, membershipType, expectedVersion) == 0) {
+            User user = loadUser(id);
+            checkVersion(user, expectedVersion);
+            return user;
+        }
+
+        User updatedUser = loadUser(id);
+        UserStatsCounters.State newState = UserStatsCounters.State.of(updatedUser);
+        userCacheInvalidationBus.invalidate(updatedUser);
+        userStatsCounters.recordChanged(new UserStatsCounters.State(previousType, newState.active()), newState);
+        userAuditLogger.membershipChanged(updatedUser, previousType);
+        userOutbox.record(UserChangeType.MEMBERSHIP_CHANGED, updatedUser);
         return updatedUser;
     }
 
@@ -141,93 +385,335 @@ public class UserService {
      * Buscar usuarios por tipo de membresía
      */
     @Transactional(readOnly = true)
-    public List<User> findByMembershipType(MembershipType membershipType) {
-        log.info("Buscando usuarios por membresía: {}", membershipType);
-        return userRepository.findByMembershipType(membershipType);
+    public List<UserSummary> findByMembershipType(MembershipType membershipType) {
+        log.debug("Buscando usuarios por membresía: {}", membershipType);
+        return userRepository.findSummariesByMembershipTypeOrderByIdAsc(membershipType);
+    }
+
+    /**
+     * Obtener una página de usuarios de una membresía a partir del cursor
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> findByMembershipType(MembershipType membershipType, Long after, int limit) {
+        log.debug("Obteniendo página de usuarios de membresía {} después del ID: {}", membershipType, after);
+        return fetchPage(after, limit, (cursor, pageLimit) ->
+                userRepository.findSummariesByMembershipTypeAndIdGreaterThanOrderByIdAsc(membershipType, cursor, pageLimit),
+                UserSummary::id);
     }
 
     /**
      * Obtener usuarios activos
      */
     @Transactional(readOnly = true)
-    public List<User> findActiveUsers() {
-        log.info("Obteniendo usuarios activos");
-        return userRepository.findByIsActiveTrue();
+    public List<UserSummary> findActiveUsers() {
+        log.debug("Obteniendo usuarios activos");
+        return userRepository.findSummariesByIsActiveTrueOrderByIdAsc();
+    }
+
+    /**
+     * Obtener una página de usuarios activos a partir del cursor
+     */
+    @Transactional(readOnly = true)
+    public CursorPage<UserSummary> findActiveUsers(Long after, int limit) {
+        log.debug("Obteniendo página de usuarios activos después del ID: {}", after);
+        return fetchPage(after, limit, userRepository::findSummariesByIsActiveTrueAndIdGreaterThanOrderByIdAsc,
+                UserSummary::id);
     }
 
     /**
      * Obtener usuarios inactivos
      */
     @Transactional(readOnly = true)
-    public List<User> findInactiveUsers() {
-        log.info("Obteniendo usuarios inactivos");
-        return userRepository.findByIsActiveFalse();
+    public List<UserSummary> findInactiveUsers() {
+        log.debug("Obteniendo usuarios inactivos");
+        return userRepository.findSummariesByIsActiveFalseOrderByIdAsc();
     }
 
     /**
-     * Buscar usuarios por nombre
+     * Obtener una página de usuarios inactivos a partir del cursor
      */
     @Transactional(readOnly = true)
-    public List<User> findByName(String name) {
-        log.info("Buscando usuarios por nombre: {}", name);
-        return userRepository.findByNameContainingIgnoreCase(name);
+    public CursorPage<UserSummary> findInactiveUsers(Long after, int limit) {
+        log.debug("Obteniendo página de usuarios inactivos después del ID: {}", after);
+        return fetchPage(after, limit, userRepository::findSummariesByIsActiveFalseAndIdGreaterThanOrderByIdAsc,
+                UserSummary::id);
     }
 
     /**
-     * Validar si un usuario puede pedir libros prestados
+     * Buscar usuarios por nombre sobre el índice de tokens.
+     * El texto se normaliza igual que los nombres indexados (minúsculas y sin
+     * acentos); cada palabra debe coincidir exacta o por prefijo con alguna
+     * palabra del nombre. Los resultados se ordenan por relevancia y se paginan.
      */
     @Transactional(readOnly = true)
+    public List<UserSummary> findByName(String name, int page, int size) {
+        log.debug("Buscando usuarios por nombre: {}", name);
+        List<Long> ids = searchIdsByName(name, page, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return inRankingOrder(ids, userRepository.findSummariesByIdIn(ids), UserSummary::id);
+    }
+
+    /**
+     * Buscar usuarios por nombre devolviendo solo los campos indicados
+     */
+    @Transactional(readOnly = true)
+    public List<Map<String, Object>> findByName(String name, int page, int size, String fields) {
+        log.debug("Buscando campos {} de usuarios por nombre: {}", fields, name);
+        List<String> selected = UserFieldSelection.parse(fields);
+        List<Long> ids = searchIdsByName(name, page, size);
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        List<Map<String, Object>> rows = userRepository.findFields(
+                UserSpecifications.hasIdIn(ids), selected, null, Limit.unlimited());
+        return inRankingOrder(ids, rows, row -> (Long) row.get("id"));
+    }
+
+    /**
+     * IDs de la página pedida de la búsqueda por nombre, ordenados por relevancia
+     */
+    private List<Long> searchIdsByName(String name, int page, int size) {
+        if (page < 0) {
+            throw new IllegalArgumentException("El número de página no puede ser negativo");
+        }
+        if (size < 1 || size > MAX_SEARCH_PAGE_SIZE) {
+            throw new IllegalArgumentException("El tamaño de página debe estar entre 1 y " + MAX_SEARCH_PAGE_SIZE);
+        }
+
+        List<String> tokens = NameNormalizer.tokens(name).stream().limit(MAX_SEARCH_TOKENS).toList();
+        if (tokens.isEmpty()) {
+            return List.of();
+        }
+        return userRepository.searchIdsByNameTokens(tokens, page * size, size);
+    }
+
+    /**
+     * La consulta por IDs no conserva el orden: se reordena según la relevancia
+     */
+    private static <T> List<T> inRankingOrder(List<Long> ids, List<T> rows, Function<T, Long> idOf) {
+        Map<Long, T> rowsById = new HashMap<>();
+        for (T row : rows) {
+            rowsById.put(idOf.apply(row), row);
+        }
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            T row = rowsById.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Validar si un usuario puede pedir libros prestados
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public boolean validateUser(Long id) {
-        log.info("Validando usuario con ID: {}", id);
+        log.debug("Validando usuario con ID: {}", id);
         User user = findUserById(id);
         boolean canBorrow = user.canBorrowBooks();
-        log.info("Usuario {} {} pedir libros prestados",
-                user.getName(), canBorrow ? "SÍ puede" : "NO puede");
+        log.debug("Usuario ID: {} puede pedir libros prestados: {}", id, canBorrow);
         return canBorrow;
     }
 
+    /**
+     * Obtener en una sola llamada si el usuario puede pedir prestado y sus límites
+     * de préstamo. Se sirve desde la caché o desde la proyección, sin cargar la entidad;
+     * como findUserById, solo la carga de un fallo abre transacción.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UserValidation getLoanEligibility(Long id) {
+        log.debug("Obteniendo elegibilidad de préstamo del usuario con ID: {}", id);
+        return userCache.getValidationById(id,
+                        userId -> readOnly(() -> userRepository.findSummaryById(userId).map(UserValidation::from)))
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con ID: " + id));
+    }
+
+    /**
+     * Validar en lote si varios usuarios pueden pedir libros prestados.
+     * Resuelve todos los IDs con una única consulta; los IDs inexistentes
+     * se informan en notFound sin hacer fallar el lote.
+     */
+    @Transactional(readOnly = true)
+    public BatchValidationResponse validateUsers(List<Long> ids) {
+        Set<Long> uniqueIds = new LinkedHashSet<>();
+        if (ids != null) {
+            for (Long id : ids) {
+                if (id != null) {
+                    uniqueIds.add(id);
+                }
+            }
+        }
+
+        if (uniqueIds.size() > MAX_BATCH_VALIDATION_SIZE) {
+            throw new IllegalArgumentException(
+                    "El lote no puede superar " + MAX_BATCH_VALIDATION_SIZE + " IDs");
+        }
+
+        log.debug("Validando lote de {} usuarios", uniqueIds.size());
+
+        Map<Long, UserValidation> found = new LinkedHashMap<>();
+        if (!uniqueIds.isEmpty()) {
+            for (UserSummary user : userRepository.findSummariesByIdIn(uniqueIds)) {
+                found.put(user.id(), UserValidation.from(user));
+            }
+        }
+
+        Map<Long, UserValidation> results = new LinkedHashMap<>();
+        List<Long> notFound = new ArrayList<>();
+        for (Long id : uniqueIds) {
+            UserValidation validation = found.get(id);
+            if (validation != null) {
+                results.put(id, validation);
+            } else {
+                notFound.add(id);
+            }
+        }
+
+        return new BatchValidationResponse(results, notFound);
+    }
+
     /**
      * Obtener usuarios que pueden pedir prestado
      */
     @Transactional(readOnly = true)
-    public List<User> findUsersWhoCanBorrow() {
-        log.info("Obteniendo usuarios que pueden pedir prestado");
-        return userRepository.findUsersWhoCanBorrow();
+    public List<UserSummary> findUsersWhoCanBorrow() {
+        log.debug("Obteniendo usuarios que pueden pedir prestado");
+        return userRepository.findSummaries(UserSpecifications.canBorrow(), null, Limit.unlimited());
     }
 
     /**
-     * Obtener estadísticas de usuarios
+     * Obtener una página de usuarios que pueden pedir prestado a partir del cursor
      */
     @Transactional(readOnly = true)
+    public CursorPage<UserSummary> findUsersWhoCanBorrow(Long after, int limit) {
+        log.debug("Obteniendo página de usuarios que pueden pedir prestado después del ID: {}", after);
+        return fetchPage(after, limit,
+                (cursor, pageLimit) -> userRepository.findSummaries(UserSpecifications.canBorrow(), cursor, pageLimit),
+                UserSummary::id);
+    }
+
+    /**
+     * Obtener estadísticas de usuarios desde los contadores en memoria.
+     * Los contadores se mantienen en cada escritura y se reconcilian
+     * periódicamente con una consulta agrupada (ver UserStatsCounters).
+     * Se sirven sin transacción: la lectura no toma conexión del pool.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public UserStats getUserStats() {
-        log.info("Obteniendo estadísticas de usuarios");
+        log.debug("Obteniendo estadísticas de usuarios");
+        return userStatsCounters.snapshot();
+    }
+
+    /**
+     * Ejecutar una consulta keyset pidiendo un elemento extra para saber si
+     * existe una página siguiente sin necesidad de COUNT ni OFFSET
+     */
+    private <T> CursorPage<T> fetchPage(Long after, int limit, PageQuery<T> query, Function<T, Long> idOf) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_PAGE_SIZE);
+        }
 
-        long totalUsers = userRepository.count();
-        long activeUsers = userRepository.countActiveUsers();
-        long basicUsers = userRepository.countByMembershipType(MembershipType.BASIC);
-        long premiumUsers = userRepository.countByMembershipType(MembershipType.PREMIUM);
-        long studentUsers = userRepository.countByMembershipType(MembershipType.STUDENT);
+        long cursor = after != null ? after : 0L;
+        List<T> users = query.fetch(cursor, Limit.of(limit + 1));
 
-        return new UserStats(totalUsers, activeUsers, basicUsers, premiumUsers, studentUsers);
+        if (users.size() <= limit) {
+            return new CursorPage<>(users, null);
+        }
+
+        List<T> items = new ArrayList<>(users.subList(0, limit));
+        return new CursorPage<>(items, idOf.apply(items.get(items.size() - 1)));
     }
 
     /**
-     * Clase interna para estadísticas
+     * Consulta paginada por cursor sobre UserRepository
+     */
+    @FunctionalInterface
+    private interface PageQuery<T> {
+        List<T> fetch(Long after, Limit limit);
+    }
+
+    private Optional<Map<String, Object>> findSingleUserFields(Specification<User> filter, String fields) {
+        List<Map<String, Object>> rows = userRepository.findFields(
+                filter, UserFieldSelection.parse(fields), null, Limit.of(1));
+        return rows.stream().findFirst();
+    }
+
+    /**
+     * Ejecutar una consulta en su propia transacción de solo lectura
+     * (para las cargas de la caché, que se consultan fuera de transacción)
+     */
+    private <T> T readOnly(Supplier<T> query) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate.execute(status -> query.get());
+    }
+
+    /**
+     * Guardar y volcar a la base de datos para que una violación del email
+     * único se detecte aquí y se traduzca a EmailAlreadyExistsException
+     */
+    private User saveAndFlush(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (ConstraintViolations.isDuplicateEmail(e)) {
+                throw new EmailAlreadyExistsException("Ya existe un usuario con el email: " + user.getEmail());
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Cargar la entidad gestionada desde la base de datos, sin pasar por la caché,
+     * para las operaciones de escritura
+     */
+    private User loadUser(Long id) {
+        return userRepository.findById(id)
+                .orElseThrow(() -> new UserNotFoundException("Usuario no encontrado con ID: " + id));
+    }
+
+    /**
+     * Comprobar la versión indicada en If-Match antes de modificar el usuario
+     */
+    private static void checkVersion(User user, Long expectedVersion) {
+        if (expectedVersion != null && !expectedVersion.equals(user.getVersion())) {
+            throw versionMismatch(user.getId());
+        }
+    }
+
+    private static PreconditionFailedException versionMismatch(Long id) {
+        return new PreconditionFailedException("La versión del usuario con ID " + id + " no coincide con If-Match");
+    }
+
+    /**
+     * Clase interna para estadísticas.
+     * Los mapas incluyen siempre todos los valores de MembershipType.
      */
     public static class UserStats {
         public final long totalUsers;
         public final long activeUsers;
-        public final long basicUsers;
-        public final long premiumUsers;
-        public final long studentUsers;
+        public final Map<MembershipType, Long> usersByMembership;
+        public final Map<MembershipType, Long> activeUsersByMembership;
 
-        public UserStats(long totalUsers, long activeUsers, long basicUsers,
-                         long premiumUsers, long studentUsers) {
+        public UserStats(long totalUsers, long activeUsers,
+                         Map<MembershipType, Long> usersByMembership,
+                         Map<MembershipType, Long> activeUsersByMembership) {
             this.totalUsers = totalUsers;
             this.activeUsers = activeUsers;
-            this.basicUsers = basicUsers;
-            this.premiumUsers = premiumUsers;
-            this.studentUsers = studentUsers;
+            this.usersByMembership = Collections.unmodifiableMap(withAllTypes(usersByMembership));
+            this.activeUsersByMembership = Collections.unmodifiableMap(withAllTypes(activeUsersByMembership));
+        }
+
+        private static Map<MembershipType, Long> withAllTypes(Map<MembershipType, Long> counts) {
+            Map<MembershipType, Long> result = new EnumMap<>(MembershipType.class);
+            for (MembershipType type : MembershipType.values()) {
+                result.put(type, counts.getOrDefault(type, 0L));
+            }
+            return result;
         }
     }
 }
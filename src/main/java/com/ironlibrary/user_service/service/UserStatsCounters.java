@@ -0,0 +1,218 @@
+package com.ironlibrary.user_service.service;
+
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.MembershipStatusCount;
+import com.ironlibrary.user_service.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Contadores en memoria de usuarios por membresía y estado.
+ * Se actualizan en cada escritura (tras el commit) y se reconcilian
+ * periódicamente con la base de datos; la lectura es O(1) y sin bloqueos.
+ */
+@Component
+@Slf4j
+public class UserStatsCounters {
+
+    /**
+     * Intentos de reconciliación antes de sobrescribir aunque haya escrituras concurrentes
+     */
+    private static final int MAX_RECONCILE_ATTEMPTS = 3;
+
+    private final UserRepository userRepository;
+
+    private final AtomicLongArray totalByType = new AtomicLongArray(MembershipType.values().length);
+    private final AtomicLongArray activeByType = new AtomicLongArray(MembershipType.values().length);
+
+    /**
+     * Se incrementa con cada delta aplicado; permite detectar escrituras durante una reconciliación
+     */
+    private final AtomicLong writeSequence = new AtomicLong();
+
+    private final AtomicLong lastDrift = new AtomicLong();
+    private final Counter driftCounter;
+    private final Counter reconciliationCounter;
+
+    private volatile boolean initialized;
+
+    public UserStatsCounters(UserRepository userRepository, MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.driftCounter = Counter.builder("users.stats.drift")
+                .description("Diferencia acumulada encontrada al reconciliar los contadores con la base de datos")
+                .register(meterRegistry);
+        this.reconciliationCounter = Counter.builder("users.stats.reconciliations")
+                .description("Reconciliaciones de contadores ejecutadas")
+                .register(meterRegistry);
+        Gauge.builder("users.stats.last-drift", lastDrift, AtomicLong::get)
+                .description("Diferencia encontrada en la última reconciliación")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Estado de un usuario relevante para las estadísticas
+     */
+    public record State(MembershipType membershipType, boolean active) {
+
+        public static State of(User user) {
+            return new State(user.getMembershipType(), Boolean.TRUE.equals(user.getIsActive()));
+        }
+    }
+
+    /**
+     * Obtener las estadísticas actuales; la primera llamada inicializa los contadores
+     */
+    public UserService.UserStats snapshot() {
+        if (!initialized) {
+            reconcile();
+        }
+
+        long totalUsers = 0;
+        long activeUsers = 0;
+        Map<MembershipType, Long> usersByMembership = new EnumMap<>(MembershipType.class);
+        Map<MembershipType, Long> activeUsersByMembership = new EnumMap<>(MembershipType.class);
+        for (MembershipType type : MembershipType.values()) {
+            long total = totalByType.get(type.ordinal());
+            long active = activeByType.get(type.ordinal());
+            totalUsers += total;
+            activeUsers += active;
+            usersByMembership.put(type, total);
+            activeUsersByMembership.put(type, active);
+        }
+        return new UserService.UserStats(totalUsers, activeUsers, usersByMembership, activeUsersByMembership);
+    }
+
+    /**
+     * Registrar un usuario creado
+     */
+    public void recordCreated(User user) {
+        State after = State.of(user);
+        afterCommit(() -> apply(after, 1));
+    }
+
+    /**
+     * Registrar varios usuarios creados en una misma transacción
+     */
+    public void recordCreated(Collection<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        List<State> states = users.stream().map(State::of).toList();
+        afterCommit(() -> states.forEach(state -> apply(state, 1)));
+    }
+
+    /**
+     * Registrar un usuario eliminado
+     */
+    public void recordDeleted(State before) {
+        afterCommit(() -> apply(before, -1));
+    }
+
+    /**
+     * Registrar un cambio de membresía o de estado
+     */
+    public void recordChanged(State before, State after) {
+        if (before.equals(after)) {
+            return;
+        }
+        afterCommit(() -> {
+            apply(before, -1);
+            apply(after, 1);
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Recalcular los contadores con la consulta agrupada y registrar la diferencia encontrada
+     */
+    @Scheduled(initialDelayString = "${user-service.stats.reconcile-interval:PT5M}",
+            fixedDelayString = "${user-service.stats.reconcile-interval:PT5M}")
+    public void reconcile() {
+        for (int attempt = 1; attempt <= MAX_RECONCILE_ATTEMPTS; attempt++) {
+            long sequenceBefore = writeSequence.get();
+            List<MembershipStatusCount> counts = userRepository.countByMembershipTypeAndStatus();
+
+            // Si hubo escrituras durante la consulta se reintenta, salvo en el último intento
+            if (writeSequence.get() != sequenceBefore && attempt < MAX_RECONCILE_ATTEMPTS) {
+                continue;
+            }
+
+            long[] total = new long[MembershipType.values().length];
+            long[] active = new long[MembershipType.values().length];
+            for (MembershipStatusCount count : counts) {
+                total[count.getMembershipType().ordinal()] += count.getTotal();
+                if (Boolean.TRUE.equals(count.getIsActive())) {
+                    active[count.getMembershipType().ordinal()] += count.getTotal();
+                }
+            }
+
+            long drift = 0;
+            for (int i = 0; i < total.length; i++) {
+                drift += Math.abs(totalByType.getAndSet(i, total[i]) - total[i]);
+                drift += Math.abs(activeByType.getAndSet(i, active[i]) - active[i]);
+            }
+
+            reconciliationCounter.increment();
+            if (initialized) {
+                lastDrift.set(drift);
+                driftCounter.increment(drift);
+                if (drift > 0) {
+                    log.warn("Reconciliación de estadísticas encontró una diferencia de {}", drift);
+                }
+            }
+            initialized = true;
+            return;
+        }
+    }
+
+    /**
+     * Diferencia encontrada en la última reconciliación
+     */
+    public long getLastDrift() {
+        return lastDrift.get();
+    }
+
+    private void apply(State state, int delta) {
+        if (state.membershipType() == null) {
+            return;
+        }
+        writeSequence.incrementAndGet();
+        totalByType.addAndGet(state.membershipType().ordinal(), delta);
+        if (state.active()) {
+            activeByType.addAndGet(state.membershipType().ordinal(), delta);
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Locale;
+
+/**
+ * Da el nombre uk_users_email a la clave única del email.
+ * Hibernate la creaba sin nombre, así que cada base de datos le asignó uno propio
+ * (en MySQL, "email"); se localiza por su columna en information_schema.
+ * Si no existe ninguna clave única solo sobre el email, se crea.
+ */
+public class V6__Rename_email_unique_key extends BaseJavaMigration {
+
+    static final String EMAIL_UNIQUE_KEY = "uk_users_email";
+
+    private static final String FIND_EMAIL_UNIQUE_KEY_SQL =
+            "SELECT tc.constraint_name FROM information_schema.table_constraints tc " +
+            "JOIN information_schema.key_column_usage kcu " +
+            "ON kcu.constraint_schema = tc.constraint_schema AND kcu.constraint_name = tc.constraint_name " +
+            "AND kcu.table_name = tc.table_name " +
+            "WHERE tc.table_schema = ? AND LOWER(tc.table_name) = 'users' AND tc.constraint_type = 'UNIQUE' " +
+            "GROUP BY tc.constraint_name " +
+            "HAVING COUNT(*) = 1 AND MAX(LOWER(kcu.column_name)) = 'email'";
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        boolean mysql = connection.getMetaData().getDatabaseProductName().toLowerCase(Locale.ROOT).contains("mysql");
+        String schema = mysql ? connection.getCatalog() : connection.getSchema();
+
+        String current = findEmailUniqueKey(connection, schema);
+        if (current != null && current.equalsIgnoreCase(EMAIL_UNIQUE_KEY)) {
+            return;
+        }
+        try (Statement statement = connection.createStatement()) {
+            if (current == null) {
+                statement.execute("ALTER TABLE users ADD CONSTRAINT " + EMAIL_UNIQUE_KEY + " UNIQUE (email)");
+            } else if (mysql) {
+                // En MySQL la clave única es un índice y se renombra como tal
+                statement.execute("ALTER TABLE users RENAME INDEX `" + current + "` TO " + EMAIL_UNIQUE_KEY);
+            } else {
+                // En H2 renombrar la restricción no renombra su índice, que es el que aparece en los errores
+                statement.execute("ALTER TABLE users DROP CONSTRAINT \"" + current + "\"");
+                statement.execute("ALTER TABLE users ADD CONSTRAINT " + EMAIL_UNIQUE_KEY + " UNIQUE (email)");
+            }
+        }
+    }
+
+    private static String findEmailUniqueKey(Connection connection, String schema) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(FIND_EMAIL_UNIQUE_KEY_SQL)) {
+            statement.setString(1, schema);
+            try (ResultSet rows = statement.executeQuery()) {
+                return rows.next() ? rows.getString(1) : null;
+            }
+        }
+    }
+}
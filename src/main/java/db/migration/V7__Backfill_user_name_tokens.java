@@ -0,0 +1,92 @@
+package db.migration;
+
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.text.Normalizer;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Genera los tokens de búsqueda de los usuarios creados antes del índice de
+ * nombres (V5). Al ser una migración se ejecuta una sola vez y bajo el bloqueo
+ * de Flyway, aunque arranquen varias réplicas a la vez. Recorre la tabla por
+ * bloques de ID y omite los usuarios que ya tienen tokens, de modo que puede
+ * repetirse sin duplicar filas si se interrumpe.
+ *
+ * La normalización es una copia congelada de NameNormalizer tal como era al
+ * escribir esta migración: si NameNormalizer cambia, esta migración debe seguir
+ * generando los mismos tokens.
+ * Un cambio de normalización necesita su propia migración que regenere los tokens.
+ */
+public class V7__Backfill_user_name_tokens extends BaseJavaMigration {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String USERS_WITHOUT_TOKENS_SQL =
+            "SELECT u.id, u.name FROM users u " +
+            "WHERE u.id > ? AND NOT EXISTS (SELECT 1 FROM user_name_tokens t WHERE t.user_id = u.id) " +
+            "ORDER BY u.id LIMIT ?";
+
+    private static final String INSERT_TOKEN_SQL = "INSERT INTO user_name_tokens (user_id, token) VALUES (?, ?)";
+
+    private static final int MAX_TOKEN_LENGTH = 50;
+    private static final int MAX_TOKENS = 10;
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^a-z0-9]+");
+
+    @Override
+    public void migrate(Context context) throws SQLException {
+        Connection connection = context.getConnection();
+        try (PreparedStatement select = connection.prepareStatement(USERS_WITHOUT_TOKENS_SQL);
+             PreparedStatement insert = connection.prepareStatement(INSERT_TOKEN_SQL)) {
+            long after = 0;
+            int read;
+            do {
+                select.setLong(1, after);
+                select.setInt(2, BATCH_SIZE);
+                read = 0;
+                try (ResultSet users = select.executeQuery()) {
+                    while (users.next()) {
+                        after = users.getLong(1);
+                        read++;
+                        for (String token : tokens(users.getString(2))) {
+                            insert.setLong(1, after);
+                            insert.setString(2, token);
+                            insert.addBatch();
+                        }
+                    }
+                }
+                insert.executeBatch();
+            } while (read == BATCH_SIZE);
+        }
+    }
+
+    /**
+     * Tokens normalizados de un nombre: minúsculas, sin acentos, sin repetir y en orden de aparición
+     */
+    private static Set<String> tokens(String name) {
+        Set<String> tokens = new LinkedHashSet<>();
+        if (name == null) {
+            return tokens;
+        }
+
+        String folded = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        for (String token : SEPARATORS.split(folded.toLowerCase(Locale.ROOT))) {
+            if (token.isEmpty()) {
+                continue;
+            }
+            tokens.add(token.length() > MAX_TOKEN_LENGTH ? token.substring(0, MAX_TOKEN_LENGTH) : token);
+            if (tokens.size() == MAX_TOKENS) {
+                break;
+            }
+        }
+        return tokens;
+    }
+}
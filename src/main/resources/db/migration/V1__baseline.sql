@@ -0,0 +1,16 @@
+-- Esquema inicial del user-service, el mismo que generaba Hibernate con ddl-auto=update
+-- (clave única del email sin nombre: cada base de datos le asigna uno propio).
+-- En bases de datos existentes no se ejecuta: spring.flyway.baseline-on-migrate las marca en esta versión,
+-- y las migraciones siguientes las llevan al esquema actual.
+
+CREATE TABLE users (
+    id                BIGINT       NOT NULL AUTO_INCREMENT,
+    name              VARCHAR(100) NOT NULL,
+    email             VARCHAR(150) NOT NULL UNIQUE,
+    membership_type   ENUM ('BASIC', 'PREMIUM', 'STUDENT') NOT NULL,
+    is_active         BIT          NOT NULL,
+    registration_date DATE,
+    phone             VARCHAR(20),
+    address           VARCHAR(255),
+    PRIMARY KEY (id)
+);
@@ -0,0 +1,12 @@
+-- Índices para las consultas de UserRepository (ver UserRepositoryExplainTest).
+-- Todos terminan en id para que los listados ordenados por ID y paginados por cursor
+-- (id > :after ORDER BY id) recorran el índice sin ordenar en memoria.
+
+-- Activos/inactivos, recuento de activos y usuarios que pueden pedir prestado
+CREATE INDEX idx_users_active_id ON users (is_active, id);
+
+-- Filtro por membresía (también combinado con el estado) y recuento por membresía
+CREATE INDEX idx_users_membership_id ON users (membership_type, id);
+
+-- Rangos de fecha de registro y usuarios registrados hoy
+CREATE INDEX idx_users_registration_date ON users (registration_date, id);
@@ -0,0 +1,15 @@
+-- Outbox transaccional de eventos de cambio de usuario (ver UserOutbox y UserOutboxRelay).
+-- Los eventos se insertan en la misma transacción que la escritura y el relay los publica después.
+
+CREATE TABLE user_outbox (
+    id           BIGINT        NOT NULL AUTO_INCREMENT,
+    event_type   VARCHAR(30)   NOT NULL,
+    user_id      BIGINT        NOT NULL,
+    payload      VARCHAR(2000) NOT NULL,
+    created_at   DATETIME(6)   NOT NULL,
+    published_at DATETIME(6),
+    PRIMARY KEY (id)
+);
+
+-- Pendientes en orden de inserción (published_at IS NULL ORDER BY id) y limpieza de publicados
+CREATE INDEX idx_user_outbox_published_id ON user_outbox (published_at, id);
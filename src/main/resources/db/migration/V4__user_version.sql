@@ -0,0 +1,4 @@
+-- Versión para el bloqueo optimista (User.version, expuesta como ETag).
+-- Las filas existentes empiezan en la versión 0, igual que las nuevas.
+
+ALTER TABLE users ADD version BIGINT NOT NULL DEFAULT 0;
@@ -0,0 +1,11 @@
+-- Tokens normalizados del nombre para la búsqueda indexada (ver NameNormalizer).
+-- Los usuarios existentes reciben sus tokens en V7 (V7__Backfill_user_name_tokens).
+
+CREATE TABLE user_name_tokens (
+    user_id BIGINT      NOT NULL,
+    token   VARCHAR(50) NOT NULL,
+    PRIMARY KEY (user_id, token),
+    CONSTRAINT fk_user_name_tokens_user FOREIGN KEY (user_id) REFERENCES users (id)
+);
+
+CREATE INDEX idx_user_name_tokens_token ON user_name_tokens (token, user_id);
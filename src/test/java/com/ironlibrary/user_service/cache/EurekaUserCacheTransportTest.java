@@ -0,0 +1,130 @@
+package com.ironlibrary.user_service.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.HttpMethod;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.*;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.*;
+
+/**
+ * Tests unitarios para EurekaUserCacheTransport
+ */
+class EurekaUserCacheTransportTest {
+
+    private final UserCacheInvalidationMessage message = new UserCacheInvalidationMessage("instancia-a",
+            List.of(new UserCacheInvalidation(1L, 2L, false, List.of("juan.perez@email.com"))));
+
+    private DiscoveryClient discoveryClient;
+    private MockRestServiceServer server;
+    private SimpleMeterRegistry meterRegistry;
+    private EurekaUserCacheTransport transport;
+
+    @BeforeEach
+    void setUp() {
+        discoveryClient = mock(DiscoveryClient.class);
+        RestClient.Builder builder = RestClient.builder();
+        server = MockRestServiceServer.bindTo(builder).ignoreExpectOrder(true).build();
+        meterRegistry = new SimpleMeterRegistry();
+        transport = new EurekaUserCacheTransport(discoveryClient, builder.build(), "user-service",
+                "instancia-a", "secreto", meterRegistry);
+    }
+
+    @Test
+    void constructor_ShouldRequireSecret() {
+        assertThrows(IllegalArgumentException.class, () -> new EurekaUserCacheTransport(discoveryClient,
+                RestClient.create(), "user-service", "instancia-a", " ", meterRegistry));
+    }
+
+    @Test
+    void send_ShouldPostMessageToEveryOtherRegisteredInstance() {
+        // Given
+        when(discoveryClient.getInstances("user-service")).thenReturn(List.of(
+                new DefaultServiceInstance("instancia-a", "user-service", "10.0.0.1", 8082, false),
+                new DefaultServiceInstance("instancia-b", "user-service", "10.0.0.2", 8082, false),
+                new DefaultServiceInstance("instancia-c", "user-service", "10.0.0.3", 8082, false)));
+        for (String host : List.of("10.0.0.2", "10.0.0.3")) {
+            server.expect(requestTo("http://" + host + ":8082/internal/cache/invalidations"))
+                    .andExpect(method(HttpMethod.POST))
+                    .andExpect(header(EurekaUserCacheTransport.SECRET_HEADER, "secreto"))
+                    .andExpect(jsonPath("$.sourceInstanceId").value("instancia-a"))
+                    .andExpect(jsonPath("$.invalidations[0].version").value(2))
+                    .andRespond(withAccepted());
+        }
+
+        // When
+        transport.send(message);
+
+        // Then
+        server.verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void send_ShouldCountFailures_WithoutPropagatingThem() throws Exception {
+        // Given
+        when(discoveryClient.getInstances("user-service")).thenReturn(List.of(
+                new DefaultServiceInstance("instancia-b", "user-service", "10.0.0.2", 8082, false)));
+        server.expect(requestTo("http://10.0.0.2:8082/internal/cache/invalidations"))
+                .andRespond(withServiceUnavailable());
+
+        // When
+        transport.send(message);
+
+        // Then
+        server.verify(Duration.ofSeconds(5));
+        for (int i = 0; i < 50 && meterRegistry.counter("users.cache.invalidations.failed").count() == 0; i++) {
+            Thread.sleep(20);
+        }
+        assertEquals(1.0, meterRegistry.counter("users.cache.invalidations.failed").count());
+    }
+
+    @Test
+    void isAuthorized_ShouldAcceptOnlyTheSharedSecret() {
+        assertTrue(transport.isAuthorized("secreto"));
+        assertFalse(transport.isAuthorized("otro"));
+        assertFalse(transport.isAuthorized(null));
+        assertEquals(2.0, meterRegistry.counter("users.cache.invalidations.rejected").count());
+    }
+
+    @Test
+    void receive_ShouldDeliverMessages_WithoutConsultingTheRegistry() {
+        // Given: el origen (instancia-a) no figura en la caché local de Eureka
+        List<UserCacheInvalidationMessage> received = new ArrayList<>();
+        transport.onMessage(received::add);
+
+        // When
+        transport.receive(message);
+
+        // Then
+        assertEquals(List.of(message), received);
+        verify(discoveryClient, never()).getInstances(anyString());
+    }
+
+    @Test
+    void close_ShouldWaitForPendingSendsAndRejectNewOnes() {
+        // Given
+        when(discoveryClient.getInstances("user-service")).thenReturn(List.of(
+                new DefaultServiceInstance("instancia-b", "user-service", "10.0.0.2", 8082, false)));
+        server.expect(requestTo("http://10.0.0.2:8082/internal/cache/invalidations")).andRespond(withAccepted());
+        transport.send(message);
+
+        // When
+        transport.close();
+
+        // Then
+        server.verify();
+        assertThrows(RejectedExecutionException.class, () -> transport.send(message));
+    }
+}
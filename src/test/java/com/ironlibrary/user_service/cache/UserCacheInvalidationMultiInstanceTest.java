@@ -0,0 +1,131 @@
+package com.ironlibrary.user_service.cache;
+
+import com.ironlibrary.user_service.UserServiceApplication;
+import com.ironlibrary.user_service.exception.UserNotFoundException;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.UserRepository;
+import com.ironlibrary.user_service.service.UserImportService;
+import com.ironlibrary.user_service.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de integración con dos instancias del servicio en la misma JVM.
+ * Comparten la base de datos H2 y un transporte loopback, como dos réplicas
+ * detrás de Eureka comparten MySQL; cada una tiene su propia caché.
+ */
+class UserCacheInvalidationMultiInstanceTest {
+
+    private static final LoopbackUserCacheTransport transport = new LoopbackUserCacheTransport();
+    private static ConfigurableApplicationContext writer;
+    private static ConfigurableApplicationContext replica;
+
+    @BeforeAll
+    static void startInstances() {
+        writer = startInstance();
+        replica = startInstance();
+    }
+
+    @AfterAll
+    static void stopInstances() {
+        replica.close();
+        writer.close();
+    }
+
+    private static ConfigurableApplicationContext startInstance() {
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("userCacheInvalidationTransport", transport))
+                .run();
+    }
+
+    @BeforeEach
+    void setUp() {
+        writer.getBean(UserRepository.class).deleteAll();
+        writer.getBean(UserCache.class).clear();
+        replica.getBean(UserCache.class).clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        writer.getBean(UserRepository.class).deleteAll();
+    }
+
+    @Test
+    void replica_ShouldSeeMembershipChangeMadeOnAnotherInstance() {
+        // Given
+        User user = service(writer).saveUser(new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC));
+        assertEquals(MembershipType.BASIC, service(replica).findUserById(user.getId()).getMembershipType());
+        assertEquals(3, service(replica).getLoanEligibility(user.getId()).getMaxBooksAllowed());
+
+        // When
+        service(writer).updateMembershipType(user.getId(), MembershipType.PREMIUM, null);
+
+        // Then
+        assertEquals(MembershipType.PREMIUM, service(replica).findUserById(user.getId()).getMembershipType());
+        assertEquals(10, service(replica).getLoanEligibility(user.getId()).getMaxBooksAllowed());
+        assertTrue(replica.getBean(MeterRegistry.class).get("users.cache.invalidations")
+                .tag("direction", "received").counter().count() > 0);
+    }
+
+    @Test
+    void replica_ShouldForgetDeletedUser() {
+        // Given
+        User user = service(writer).saveUser(new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC));
+        service(replica).findUserById(user.getId());
+        service(replica).findUserByEmail("juan.perez@email.com");
+
+        // When
+        service(writer).deleteUser(user.getId());
+
+        // Then
+        assertThrows(UserNotFoundException.class, () -> service(replica).findUserById(user.getId()));
+        assertThrows(UserNotFoundException.class, () -> service(replica).findUserByEmail("juan.perez@email.com"));
+    }
+
+    @Test
+    void replica_ShouldStopResolvingPreviousEmail() {
+        // Given
+        User user = service(writer).saveUser(new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC));
+        service(replica).findUserByEmail("juan.perez@email.com");
+        User update = new User("Juan Pérez", "juan.nuevo@email.com", MembershipType.BASIC);
+
+        // When
+        service(writer).updateUser(user.getId(), update, null);
+
+        // Then
+        assertThrows(UserNotFoundException.class, () -> service(replica).findUserByEmail("juan.perez@email.com"));
+        assertEquals(user.getId(), service(replica).findUserByEmail("juan.nuevo@email.com").getId());
+    }
+
+    @Test
+    void replica_ShouldForgetMissingEmail_WhenAnotherInstanceImportsIt() {
+        // Given
+        assertThrows(UserNotFoundException.class, () -> service(replica).findUserByEmail("ana.garcia@email.com"));
+
+        // When
+        writer.getBean(UserImportService.class)
+                .importUsers(List.of(new User("Ana García", "ana.garcia@email.com", MembershipType.STUDENT)));
+
+        // Then
+        assertEquals("Ana García", service(replica).findUserByEmail("ana.garcia@email.com").getName());
+    }
+
+    private static UserService service(ConfigurableApplicationContext context) {
+        return context.getBean(UserService.class);
+    }
+}
@@ -0,0 +1,546 @@
+package com.ironlibrary.user_service.cache;
+
+import com.ironlibrary.user_service.dto.UserValidation;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para UserCache
+ */
+class UserCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserCache userCache;
+    private User testUser;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        userCache = newCache(Duration.ofSeconds(10), Duration.ofSeconds(5));
+
+        testUser = new User("Juan Pérez", "juan.perez@email.com", MembershipType.PREMIUM);
+        testUser.setId(1L);
+    }
+
+    @Test
+    void getById_ShouldLoadOnceAndThenHit() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(testUser);
+        });
+        Optional<User> result = userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(testUser);
+        });
+
+        // Then
+        assertTrue(result.isPresent());
+        assertEquals(1, loads.get());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users.byId").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "users.byId").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    void getById_ShouldReturnCopies_SoCallersCannotChangeCachedUser() {
+        // Given
+        userCache.getById(1L, id -> Optional.of(testUser));
+        User first = userCache.getById(1L, id -> Optional.empty()).orElseThrow();
+
+        // When
+        first.setMembershipType(MembershipType.BASIC);
+        first.setIsActive(false);
+        testUser.setName("Otro Nombre");
+
+        // Then
+        User second = userCache.getByEmail("juan.perez@email.com", email -> Optional.empty()).orElseThrow();
+        assertNotSame(first, second);
+        assertEquals("Juan Pérez", second.getName());
+        assertEquals(MembershipType.PREMIUM, second.getMembershipType());
+        assertTrue(second.getIsActive());
+        assertEquals(Set.of("juan", "perez"), second.getNameTokens());
+    }
+
+    @Test
+    void getById_ShouldRememberMissingUsers() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        Optional<User> result = userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(testUser);
+        });
+
+        // Then
+        assertTrue(result.isEmpty());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getById_ShouldNotRememberMissingUsers_WhenNegativeTtlIsZero() {
+        // Given
+        UserCache withoutNegativeCache = newCache(Duration.ZERO, Duration.ofSeconds(5));
+        AtomicInteger loads = new AtomicInteger();
+
+        // When
+        withoutNegativeCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        withoutNegativeCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldForgetMissingIdAndEmail() {
+        // Given
+        userCache.getById(1L, id -> Optional.empty());
+        userCache.getByEmail("juan.perez@email.com", email -> Optional.empty());
+
+        // When
+        invalidate(testUser);
+
+        // Then
+        assertTrue(userCache.getById(1L, id -> Optional.of(testUser)).isPresent());
+        assertTrue(userCache.getByEmail("Juan.Perez@email.com", email -> Optional.of(testUser)).isPresent());
+    }
+
+    @Test
+    void getById_ShouldNotRememberMissBeforeConcurrentInvalidation() {
+        // When
+        userCache.getById(1L, id -> {
+            invalidate(testUser);
+            return Optional.empty();
+        });
+
+        // Then
+        assertTrue(userCache.getById(1L, id -> Optional.of(testUser)).isPresent());
+    }
+
+    @Test
+    void invalidate_ShouldDropEntryByIdAndEmail() {
+        // Given
+        userCache.getById(1L, id -> Optional.of(testUser));
+
+        // When
+        invalidate(testUser);
+
+        // Then
+        AtomicInteger loads = new AtomicInteger();
+        userCache.getByEmail("juan.perez@email.com", email -> {
+            loads.incrementAndGet();
+            return Optional.empty();
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void getByEmail_ShouldIgnoreEntryWhoseEmailChanged() {
+        // Given
+        userCache.getByEmail("juan.perez@email.com", email -> Optional.of(testUser));
+        User renamed = new User("Juan Pérez", "juan.nuevo@email.com", MembershipType.PREMIUM);
+        renamed.setId(1L);
+        renamed.setVersion(1L);
+        // Invalidación solo por ID: el email anterior sigue apuntando al usuario
+        userCache.invalidate(List.of(new UserCacheInvalidation(1L, 1L, false, List.of())));
+        userCache.getById(1L, id -> Optional.of(renamed));
+
+        // When
+        Optional<User> result = userCache.getByEmail("juan.perez@email.com", email -> Optional.empty());
+
+        // Then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void getById_ShouldNotStoreValueLoadedBeforeConcurrentInvalidation() {
+        // When
+        userCache.getById(1L, id -> {
+            invalidate(testUser);
+            return Optional.of(testUser);
+        });
+
+        // Then
+        AtomicInteger loads = new AtomicInteger();
+        userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(testUser);
+        });
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldNotStoreOlderVersionLoadedAfterwards() {
+        // Given
+        testUser.setVersion(1L);
+        User newer = new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC);
+        newer.setId(1L);
+        newer.setVersion(2L);
+
+        // When
+        userCache.invalidate(List.of(UserCacheInvalidation.updated(newer)));
+        userCache.getById(1L, id -> Optional.of(testUser));
+
+        // Then
+        Optional<User> result = userCache.getById(1L, id -> Optional.of(newer));
+        assertEquals(Optional.of(newer), result);
+        assertEquals(newer, userCache.getById(1L, id -> Optional.empty()).orElseThrow());
+    }
+
+    @Test
+    void invalidate_ShouldKeepNewerEntry_WhenInvalidationArrivesLate() {
+        // Given
+        testUser.setVersion(3L);
+        User older = new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC);
+        older.setId(1L);
+        older.setVersion(2L);
+        userCache.invalidate(List.of(UserCacheInvalidation.updated(testUser)));
+        userCache.getById(1L, id -> Optional.of(testUser));
+
+        // When
+        userCache.invalidate(List.of(UserCacheInvalidation.updated(older)));
+
+        // Then
+        AtomicInteger loads = new AtomicInteger();
+        Optional<User> result = userCache.getById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(older);
+        });
+        assertEquals(testUser, result.orElseThrow());
+        assertEquals(0, loads.get());
+    }
+
+    @Test
+    void invalidate_ShouldLeaveTombstoneForDeletedUser() {
+        // Given
+        testUser.setVersion(0L);
+        userCache.getById(1L, id -> Optional.of(testUser));
+
+        // When
+        userCache.invalidate(List.of(UserCacheInvalidation.deleted(testUser)));
+        userCache.getById(1L, id -> Optional.of(testUser));
+        userCache.getValidationById(1L, id -> Optional.of(UserValidation.from(testUser)));
+
+        // Then
+        assertTrue(userCache.getById(1L, id -> Optional.empty()).isEmpty());
+        assertTrue(userCache.getValidationById(1L, id -> Optional.empty()).isEmpty());
+    }
+
+    @Test
+    void invalidate_ShouldClearCachedUsers_WhenMinVersionIsEvictedBySize() {
+        // Given: una caché que solo recuerda una versión mínima y tiene un usuario guardado
+        UserCache smallVersions = new UserCache(100, Duration.ofMinutes(5), Duration.ofSeconds(10),
+                Duration.ofMinutes(1), 1, Duration.ofSeconds(5), meterRegistry);
+        User cachedUser = new User("Ana García", "ana.garcia@email.com", MembershipType.BASIC);
+        cachedUser.setId(2L);
+        cachedUser.setVersion(0L);
+        smallVersions.getById(2L, id -> Optional.of(cachedUser));
+        User updatedUser = new User("Luis Martín", "luis.martin@email.com", MembershipType.STUDENT);
+        updatedUser.setId(3L);
+        updatedUser.setVersion(1L);
+        testUser.setVersion(0L);
+        AtomicInteger loads = new AtomicInteger();
+
+        // When: la lápida y la versión siguiente no caben juntas
+        smallVersions.invalidate(List.of(UserCacheInvalidation.deleted(testUser)));
+        smallVersions.invalidate(List.of(UserCacheInvalidation.updated(updatedUser)));
+        smallVersions.getById(2L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(cachedUser);
+        });
+
+        // Then
+        assertEquals(1, loads.get());
+        assertTrue(meterRegistry.counter("users.cache.versions.evicted").count() >= 1.0);
+    }
+
+    @Test
+    void invalidate_ShouldForgetMissingIdAndEmailOfCreatedUser() {
+        // Given
+        testUser.setVersion(0L);
+        userCache.getById(1L, id -> Optional.empty());
+        userCache.getByEmail("juan.perez@email.com", email -> Optional.empty());
+
+        // When
+        userCache.invalidate(List.of(UserCacheInvalidation.updated(testUser)));
+
+        // Then
+        assertTrue(userCache.getById(1L, id -> Optional.of(testUser)).isPresent());
+        assertTrue(userCache.getByEmail("juan.perez@email.com", email -> Optional.of(testUser)).isPresent());
+    }
+
+    @Test
+    void getById_ShouldCoalesceConcurrentLoadsOfSameId() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Optional<User>>> results = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> userCache.getById(1L, id -> {
+                    loads.incrementAndGet();
+                    await(release);
+                    return Optional.of(testUser);
+                })));
+            }
+            awaitCoalesced("id", 7);
+            release.countDown();
+        }
+
+        // Then
+        assertEquals(1, loads.get());
+        for (Future<Optional<User>> result : results) {
+            assertEquals(testUser, result.get().orElseThrow());
+        }
+        assertEquals(7.0, coalesced("id"));
+    }
+
+    @Test
+    void getByEmail_ShouldCoalesceLoadsRegardlessOfCase() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        // When
+        Future<Optional<User>> lower;
+        Future<Optional<User>> mixed;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            lower = executor.submit(() -> userCache.getByEmail("juan.perez@email.com", email -> {
+                loads.incrementAndGet();
+                await(release);
+                return Optional.of(testUser);
+            }));
+            mixed = executor.submit(() -> userCache.getByEmail("Juan.Perez@email.com", email -> {
+                loads.incrementAndGet();
+                await(release);
+                return Optional.of(testUser);
+            }));
+            awaitCoalesced("email", 1);
+            release.countDown();
+        }
+
+        // Then
+        assertEquals(1, loads.get());
+        assertEquals(lower.get().orElseThrow(), mixed.get().orElseThrow());
+        assertNotSame(lower.get().orElseThrow(), mixed.get().orElseThrow());
+    }
+
+    @Test
+    void getById_ShouldPropagateLoaderFailureToCoalescedCallers() throws Exception {
+        // Given
+        CountDownLatch release = new CountDownLatch(1);
+        List<Future<Optional<User>>> results = new ArrayList<>();
+
+        // When
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 3; i++) {
+                results.add(executor.submit(() -> userCache.getById(1L, id -> {
+                    await(release);
+                    throw new IllegalStateException("base de datos no disponible");
+                })));
+            }
+            awaitCoalesced("id", 2);
+            release.countDown();
+        }
+
+        // Then
+        for (Future<Optional<User>> result : results) {
+            ExecutionException exception = assertThrows(ExecutionException.class, result::get);
+            assertInstanceOf(IllegalStateException.class, exception.getCause());
+        }
+        assertEquals(Optional.of(testUser), userCache.getById(1L, id -> Optional.of(testUser)));
+    }
+
+    @Test
+    void getById_ShouldNotJoinLoadStartedBeforeInvalidation() throws Exception {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        User updated = new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC);
+        updated.setId(1L);
+        updated.setVersion(1L);
+
+        // When
+        Optional<User> afterInvalidation;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> userCache.getById(1L, id -> {
+                loads.incrementAndGet();
+                loading.countDown();
+                await(release);
+                return Optional.of(testUser);
+            }));
+            await(loading);
+            invalidate(updated);
+            afterInvalidation = userCache.getById(1L, id -> {
+                loads.incrementAndGet();
+                return Optional.of(updated);
+            });
+            release.countDown();
+        }
+
+        // Then
+        assertEquals(updated, afterInvalidation.orElseThrow());
+        assertEquals(2, loads.get());
+        assertEquals(0.0, coalesced("id"));
+    }
+
+    @Test
+    void getById_ShouldStopWaitingForCoalescedLoadAfterTimeout() throws Exception {
+        // Given
+        UserCache shortTimeout = newCache(Duration.ofSeconds(10), Duration.ofMillis(100));
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            Future<Optional<User>> leader = executor.submit(() -> shortTimeout.getById(1L, id -> {
+                loading.countDown();
+                await(release);
+                return Optional.of(testUser);
+            }));
+            await(loading);
+
+            // When & Then
+            assertThrows(QueryTimeoutException.class, () -> shortTimeout.getById(1L, id -> Optional.of(testUser)));
+            release.countDown();
+            assertEquals(testUser, leader.get().orElseThrow());
+        }
+    }
+
+    private UserCache newCache(Duration negativeTtl, Duration coalesceTimeout) {
+        return new UserCache(100, Duration.ofMinutes(5), negativeTtl, Duration.ofMinutes(1), 100, coalesceTimeout,
+                meterRegistry);
+    }
+
+    /**
+     * Invalidar el usuario como tras una escritura que lo deja en su versión actual
+     */
+    private void invalidate(User user) {
+        userCache.invalidate(List.of(UserCacheInvalidation.updated(user)));
+    }
+
+    private double coalesced(String key) {
+        return meterRegistry.get("users.cache.coalesced").tag("key", key).counter().count();
+    }
+
+    private void awaitCoalesced(String key, int expected) throws InterruptedException {
+        for (int i = 0; i < 500 && coalesced(key) < expected; i++) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, coalesced(key));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Test
+    void getValidationById_ShouldLoadProjectionOnceUntilInvalidated() {
+        // Given
+        AtomicInteger loads = new AtomicInteger();
+        UserValidation validation = new UserValidation(true, 10, 30);
+
+        // When
+        userCache.getValidationById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(validation);
+        });
+        Optional<UserValidation> cached = userCache.getValidationById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(validation);
+        });
+        invalidate(testUser);
+        userCache.getValidationById(1L, id -> {
+            loads.incrementAndGet();
+            return Optional.of(new UserValidation(false, 10, 30));
+        });
+
+        // Then
+        assertEquals(Optional.of(validation), cached);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getValidationById_ShouldReturnCopies_SoCallersCannotChangeCachedValidation() {
+        // Given
+        UserValidation validation = new UserValidation(true, 10, 30);
+        userCache.getValidationById(1L, id -> Optional.of(validation));
+        validation.setCanBorrow(false);
+        userCache.getValidationById(1L, id -> Optional.empty()).orElseThrow().setMaxBooksAllowed(0);
+
+        // When
+        Optional<UserValidation> result = userCache.getValidationById(1L, id -> Optional.empty());
+
+        // Then
+        assertEquals(Optional.of(new UserValidation(true, 10, 30)), result);
+    }
+
+    @Test
+    void getValidationById_ShouldDeriveFromCachedUserWithoutLoading() {
+        // Given
+        userCache.getById(1L, id -> Optional.of(testUser));
+
+        // When
+        Optional<UserValidation> result = userCache.getValidationById(1L, id -> {
+            throw new AssertionError("No debería consultar la base de datos");
+        });
+
+        // Then
+        assertEquals(Optional.of(new UserValidation(true, 10, 30)), result);
+    }
+
+    @Test
+    void getValidationById_ShouldShareNegativeCacheWithGetById() {
+        // Given
+        userCache.getById(1L, id -> Optional.empty());
+
+        // When
+        Optional<UserValidation> result = userCache.getValidationById(1L, id -> {
+            throw new AssertionError("No debería consultar la base de datos");
+        });
+
+        // Then
+        assertTrue(result.isEmpty());
+    }
+}
@@ -0,0 +1,95 @@
+package com.ironlibrary.user_service.controller;
+
+import com.ironlibrary.user_service.cache.EurekaUserCacheTransport;
+import com.ironlibrary.user_service.cache.UserCacheInvalidationMessage;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.client.RestClient;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Tests del endpoint interno de invalidaciones: secreto compartido
+ */
+class CacheInvalidationControllerTest {
+
+    private static final String BODY = """
+            {"sourceInstanceId":"instancia-b","invalidations":[
+              {"userId":1,"version":2,"deleted":false,"emails":["juan.perez@email.com"]}]}
+            """;
+
+    private final List<UserCacheInvalidationMessage> received = new ArrayList<>();
+    private EurekaUserCacheTransport transport;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        transport = new EurekaUserCacheTransport(mock(DiscoveryClient.class), RestClient.create(), "user-service",
+                "instancia-a", "secreto", new SimpleMeterRegistry());
+        transport.onMessage(received::add);
+        mockMvc = MockMvcBuilders.standaloneSetup(new CacheInvalidationController(transport)).build();
+    }
+
+    @AfterEach
+    void tearDown() {
+        transport.close();
+    }
+
+    @Test
+    void receive_ShouldAcceptMessageWithSecret() throws Exception {
+        mockMvc.perform(post(EurekaUserCacheTransport.INVALIDATIONS_PATH)
+                        .header(EurekaUserCacheTransport.SECRET_HEADER, "secreto")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isAccepted());
+
+        assertEquals(1, received.size());
+        assertEquals(2L, received.get(0).invalidations().get(0).version());
+    }
+
+    @Test
+    void receive_ShouldReturn401_WithoutSecret() throws Exception {
+        mockMvc.perform(post(EurekaUserCacheTransport.INVALIDATIONS_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isUnauthorized());
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void receive_ShouldReturn401_WithWrongSecret() throws Exception {
+        mockMvc.perform(post(EurekaUserCacheTransport.INVALIDATIONS_PATH)
+                        .header(EurekaUserCacheTransport.SECRET_HEADER, "otro")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY))
+                .andExpect(status().isUnauthorized());
+
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void receive_ShouldAcceptMessageWithSecret_WhenSourceIsNotYetInLocalRegistry() throws Exception {
+        // Una réplica recién arrancada todavía no figura en la caché de Eureka del receptor
+        mockMvc.perform(post(EurekaUserCacheTransport.INVALIDATIONS_PATH)
+                        .header(EurekaUserCacheTransport.SECRET_HEADER, "secreto")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(BODY.replace("instancia-b", "instancia-nueva")))
+                .andExpect(status().isAccepted());
+
+        assertEquals(1, received.size());
+        assertEquals("instancia-nueva", received.get(0).sourceInstanceId());
+    }
+}
@@ -0,0 +1,116 @@
+package com.ironlibrary.user_service.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de integración de la compresión gzip y de los formatos Smile/CBOR sobre un servidor real
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles("test")
+class UserContentNegotiationIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        for (int i = 0; i < 50; i++) {
+            userRepository.save(new User("Usuario " + i, "usuario" + i + "@email.com", MembershipType.BASIC));
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void getAllUsers_ShouldCompressLargeJsonResponse_WhenClientAcceptsGzip() throws Exception {
+        // When
+        HttpResponse<byte[]> response = get("/api/users", "application/json", "gzip");
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertEquals("gzip", response.headers().firstValue("Content-Encoding").orElse(null));
+        byte[] json = new GZIPInputStream(new ByteArrayInputStream(response.body())).readAllBytes();
+        JsonNode users = new ObjectMapper().readTree(json);
+        assertEquals(50, users.size());
+        assertTrue(response.body().length < json.length);
+    }
+
+    @Test
+    void healthCheck_ShouldNotCompressSmallResponse() throws Exception {
+        // When
+        HttpResponse<byte[]> response = get("/api/users/health", "text/plain", "gzip");
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Encoding").isEmpty());
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnSmile_WhenRequested() throws Exception {
+        // When
+        HttpResponse<byte[]> response = get("/api/users?limit=10", "application/x-jackson-smile", null);
+
+        // Then
+        assertEquals(200, response.statusCode());
+        assertTrue(response.headers().firstValue("Content-Type").orElseThrow().startsWith("application/x-jackson-smile"));
+        JsonNode page = new ObjectMapper(new SmileFactory()).readTree(response.body());
+        assertEquals(10, page.get("items").size());
+        assertEquals("usuario0@email.com", page.get("items").get(0).get("email").asText());
+    }
+
+    @Test
+    void getUserById_ShouldReturnCbor_WhenRequested() throws Exception {
+        // Given
+        User user = userRepository.findByEmail("usuario7@email.com").orElseThrow();
+
+        // When
+        HttpResponse<byte[]> response = get("/api/users/" + user.getId(), "application/cbor", null);
+
+        // Then
+        assertEquals(200, response.statusCode());
+        JsonNode body = new ObjectMapper(new CBORFactory()).readTree(response.body());
+        assertEquals("Usuario 7", body.get("name").asText());
+        assertEquals("BASIC", body.get("membershipType").asText());
+        assertTrue(body.get("registrationDate").isTextual());
+    }
+
+    private HttpResponse<byte[]> get(String path, String accept, String acceptEncoding) throws Exception {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", accept);
+        if (acceptEncoding != null) {
+            request.header("Accept-Encoding", acceptEncoding);
+        }
+        return client.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+    }
+}
@@ -1,9 +1,21 @@
 package com.ironlibrary.user_service.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironlibrary.user_service.dto.BatchValidationResponse;
+import com.ironlibrary.user_service.dto.CursorPage;
+import com.ironlibrary.user_service.dto.ImportReport;
+import com.ironlibrary.user_service.dto.ImportRowResult;
+import com.ironlibrary.user_service.dto.ImportStatus;
+import com.ironlibrary.user_service.dto.UserValidation;
+import com.ironlibrary.user_service.exception.PreconditionFailedException;
+import com.ironlibrary.user_service.exception.UserNotFoundException;
+import com.ironlibrary.user_service.dto.UserSummary;
 import com.ironlibrary.user_service.model.MembershipType;
 import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.service.UserFilter;
+import com.ironlibrary.user_service.service.UserImportService;
 import com.ironlibrary.user_service.service.UserService;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,13 +23,16 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Primary;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
@@ -36,6 +51,12 @@ class UserControllerMockMvcTest {
         public UserService userService() {
             return mock(UserService.class);
         }
+
+        @Bean
+        @Primary
+        public UserImportService userImportService() {
+            return mock(UserImportService.class);
+        }
     }
 
     @Autowired
@@ -44,6 +65,9 @@ class UserControllerMockMvcTest {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private UserImportService userImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -52,7 +76,7 @@ class UserControllerMockMvcTest {
     @BeforeEach
     void setUp() {
         // Resetear el mock antes de cada test
-        reset(userService);
+        reset(userService, userImportService);
 
         testUser = new User();
         testUser.setId(1L);
@@ -68,8 +92,8 @@ class UserControllerMockMvcTest {
     @Test
     void getAllUsers_ShouldReturnUserListAsJson() throws Exception {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findAllUsers()).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.all())).thenReturn(users);
 
         // When & Then
         mockMvc.perform(get("/api/users"))
@@ -80,9 +104,46 @@ class UserControllerMockMvcTest {
                 .andExpect(jsonPath("$[0].name").value("Juan Pérez"))
                 .andExpect(jsonPath("$[0].email").value("juan.perez@email.com"))
                 .andExpect(jsonPath("$[0].membershipType").value("PREMIUM"))
-                .andExpect(jsonPath("$[0].isActive").value(true));
+                .andExpect(jsonPath("$[0].isActive").value(true))
+                .andExpect(jsonPath("$[0].phone").doesNotExist())
+                .andExpect(jsonPath("$[0].address").doesNotExist());
+
+        verify(userService).findUsers(UserFilter.all());
+    }
 
-        verify(userService).findAllUsers();
+    @Test
+    void getAllUsersPage_ShouldReturnItemsAndNextCursor() throws Exception {
+        // Given
+        when(userService.findUsers(UserFilter.all(), 10L, 1)).thenReturn(new CursorPage<>(List.of(UserSummary.from(testUser)), 1L));
+
+        // When & Then
+        mockMvc.perform(get("/api/users")
+                        .param("limit", "1")
+                        .param("after", "10"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.items[0].id").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(1));
+
+        verify(userService).findUsers(UserFilter.all(), 10L, 1);
+        verify(userService, never()).findUsers(any());
+    }
+
+    @Test
+    void getUsersByMembershipPage_ShouldReturnPageOfMembership() throws Exception {
+        // Given
+        when(userService.findUsers(UserFilter.membership(MembershipType.PREMIUM), null, 50))
+                .thenReturn(new CursorPage<>(List.of(UserSummary.from(testUser)), null));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/membership")
+                        .param("type", "PREMIUM")
+                        .param("limit", "50"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items[0].membershipType").value("PREMIUM"))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        verify(userService).findUsers(UserFilter.membership(MembershipType.PREMIUM), null, 50);
     }
 
     @Test
@@ -119,8 +180,8 @@ class UserControllerMockMvcTest {
     @Test
     void getActiveUsers_ShouldReturnActiveUsersOnly() throws Exception {
         // Given
-        List<User> activeUsers = Arrays.asList(testUser);
-        when(userService.findActiveUsers()).thenReturn(activeUsers);
+        List<UserSummary> activeUsers = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.active())).thenReturn(activeUsers);
 
         // When & Then
         mockMvc.perform(get("/api/users/active"))
@@ -128,15 +189,15 @@ class UserControllerMockMvcTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].isActive").value(true));
 
-        verify(userService).findActiveUsers();
+        verify(userService).findUsers(UserFilter.active());
     }
 
     @Test
     void getInactiveUsers_ShouldReturnInactiveUsers() throws Exception {
         // Given
         testUser.setIsActive(false);
-        List<User> inactiveUsers = Arrays.asList(testUser);
-        when(userService.findInactiveUsers()).thenReturn(inactiveUsers);
+        List<UserSummary> inactiveUsers = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.inactive())).thenReturn(inactiveUsers);
 
         // When & Then
         mockMvc.perform(get("/api/users/inactive"))
@@ -144,14 +205,14 @@ class UserControllerMockMvcTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].isActive").value(false));
 
-        verify(userService).findInactiveUsers();
+        verify(userService).findUsers(UserFilter.inactive());
     }
 
     @Test
     void getUsersWhoCanBorrow_ShouldReturnEligibleUsers() throws Exception {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findUsersWhoCanBorrow()).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.canBorrow())).thenReturn(users);
 
         // When & Then
         mockMvc.perform(get("/api/users/can-borrow"))
@@ -159,14 +220,14 @@ class UserControllerMockMvcTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].isActive").value(true));
 
-        verify(userService).findUsersWhoCanBorrow();
+        verify(userService).findUsers(UserFilter.canBorrow());
     }
 
     @Test
     void getUsersByMembership_ShouldReturnUsersOfMembership() throws Exception {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findByMembershipType(MembershipType.PREMIUM)).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.membership(MembershipType.PREMIUM))).thenReturn(users);
 
         // When & Then
         mockMvc.perform(get("/api/users/membership")
@@ -175,14 +236,14 @@ class UserControllerMockMvcTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].membershipType").value("PREMIUM"));
 
-        verify(userService).findByMembershipType(MembershipType.PREMIUM);
+        verify(userService).findUsers(UserFilter.membership(MembershipType.PREMIUM));
     }
 
     @Test
     void getUsersByName_ShouldReturnUsersByName() throws Exception {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findByName("Juan")).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findByName("Juan", 0, 50)).thenReturn(users);
 
         // When & Then
         mockMvc.perform(get("/api/users/search/name")
@@ -191,7 +252,7 @@ class UserControllerMockMvcTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$[0].name").value("Juan Pérez"));
 
-        verify(userService).findByName("Juan");
+        verify(userService).findByName("Juan", 0, 50);
     }
 
     @Test
@@ -208,10 +269,33 @@ class UserControllerMockMvcTest {
         verify(userService).validateUser(1L);
     }
 
+    @Test
+    void validateUsers_ShouldReturnBatchResultAsJson() throws Exception {
+        // Given
+        BatchValidationResponse response = new BatchValidationResponse(
+                Map.of(1L, new UserValidation(true, 10, 30)), List.of(99L));
+        when(userService.validateUsers(List.of(1L, 99L))).thenReturn(response);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/validate/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[1, 99]"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.results.1.canBorrow").value(true))
+                .andExpect(jsonPath("$.results.1.maxBooksAllowed").value(10))
+                .andExpect(jsonPath("$.results.1.loanDurationDays").value(30))
+                .andExpect(jsonPath("$.notFound[0]").value(99));
+
+        verify(userService).validateUsers(List.of(1L, 99L));
+    }
+
     @Test
     void getUserStats_ShouldReturnStatisticsAsJson() throws Exception {
         // Given
-        UserService.UserStats stats = new UserService.UserStats(100L, 85L, 30L, 40L, 30L);
+        UserService.UserStats stats = new UserService.UserStats(100L, 85L,
+                Map.of(MembershipType.BASIC, 30L, MembershipType.PREMIUM, 40L, MembershipType.STUDENT, 30L),
+                Map.of(MembershipType.BASIC, 25L, MembershipType.PREMIUM, 40L, MembershipType.STUDENT, 20L));
         when(userService.getUserStats()).thenReturn(stats);
 
         // When & Then
@@ -220,9 +304,10 @@ class UserControllerMockMvcTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.totalUsers").value(100))
                 .andExpect(jsonPath("$.activeUsers").value(85))
-                .andExpect(jsonPath("$.basicUsers").value(30))
-                .andExpect(jsonPath("$.premiumUsers").value(40))
-                .andExpect(jsonPath("$.studentUsers").value(30));
+                .andExpect(jsonPath("$.usersByMembership.BASIC").value(30))
+                .andExpect(jsonPath("$.usersByMembership.PREMIUM").value(40))
+                .andExpect(jsonPath("$.usersByMembership.STUDENT").value(30))
+                .andExpect(jsonPath("$.activeUsersByMembership.STUDENT").value(20));
 
         verify(userService).getUserStats();
     }
@@ -251,6 +336,206 @@ class UserControllerMockMvcTest {
         verify(userService).saveUser(any(User.class));
     }
 
+    @Test
+    void importUsersCsv_ShouldReturnPerRowReport() throws Exception {
+        // Given
+        String csv = "name,email,membershipType\nAna García,ana.garcia@email.com,BASIC\n";
+        ImportReport report = new ImportReport(1, 1, 0, List.of(
+                new ImportRowResult(1, "ana.garcia@email.com", ImportStatus.CREATED, 7L, null)));
+        when(userImportService.importCsv(csv)).thenReturn(report);
+
+        // When & Then
+        mockMvc.perform(post("/api/users/import")
+                        .contentType("text/csv")
+                        .content(csv))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(1))
+                .andExpect(jsonPath("$.rows[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.rows[0].id").value(7));
+
+        verify(userImportService).importCsv(csv);
+    }
+
+    @Test
+    void getUserById_ShouldReturnNotFoundWithPath_WhenUserNotExists() throws Exception {
+        // Given
+        when(userService.findUserById(99L)).thenThrow(new UserNotFoundException("Usuario no encontrado con ID: 99"));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.status").value(404))
+                .andExpect(jsonPath("$.message").value("Usuario no encontrado con ID: 99"))
+                .andExpect(jsonPath("$.path").value("/api/users/99"));
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnOnlyRequestedFields_WhenFieldsParamIsPresent() throws Exception {
+        // Given
+        when(userService.findUserFields(UserFilter.all(), "name,email"))
+                .thenReturn(List.of(Map.of("id", 1L, "name", "Juan Pérez", "email", "juan.perez@email.com")));
+
+        // When & Then
+        mockMvc.perform(get("/api/users").param("fields", "name,email"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].name").value("Juan Pérez"))
+                .andExpect(jsonPath("$[0].membershipType").doesNotExist());
+
+        verify(userService).findUserFields(UserFilter.all(), "name,email");
+        verify(userService, never()).findUsers(any());
+    }
+
+    @Test
+    void getUserById_ShouldReturnOnlyRequestedFieldsWithoutETag() throws Exception {
+        // Given
+        when(userService.findUserFieldsById(1L, "name")).thenReturn(Map.of("id", 1L, "name", "Juan Pérez"));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1").param("fields", "name"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("ETag"))
+                .andExpect(jsonPath("$.name").value("Juan Pérez"))
+                .andExpect(jsonPath("$.email").doesNotExist());
+
+        verify(userService, never()).findUserById(any());
+    }
+
+    @Test
+    void getAllUsers_ShouldReturnBadRequest_WhenFieldIsUnknown() throws Exception {
+        // Given
+        when(userService.findUserFields(UserFilter.all(), "password"))
+                .thenThrow(new IllegalArgumentException("Campo desconocido en fields: password"));
+
+        // When & Then
+        mockMvc.perform(get("/api/users").param("fields", "password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Campo desconocido en fields: password"));
+    }
+
+    @Test
+    void getLoanEligibility_ShouldReturnEligibilityAndLimits() throws Exception {
+        // Given
+        when(userService.getLoanEligibility(1L)).thenReturn(new UserValidation(true, 10, 30));
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1/eligibility"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.canBorrow").value(true))
+                .andExpect(jsonPath("$.maxBooksAllowed").value(10))
+                .andExpect(jsonPath("$.loanDurationDays").value(30));
+
+        verify(userService, never()).findUserById(any());
+    }
+
+    @Test
+    void createUser_ShouldReturnConflict_WhenEmailConstraintIsViolated() throws Exception {
+        // Given
+        when(userService.saveUser(any(User.class))).thenThrow(new DataIntegrityViolationException("duplicado",
+                new ConstraintViolationException("Duplicate entry", new SQLException(), "users.uk_users_email")));
+
+        // When & Then
+        mockMvc.perform(post("/api/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testUser)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.status").value(409))
+                .andExpect(jsonPath("$.path").value("/api/users"));
+    }
+
+    @Test
+    void getUserById_ShouldReturnVersionAsETag() throws Exception {
+        // Given
+        testUser.setVersion(3L);
+        when(userService.findUserById(1L)).thenReturn(testUser);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void getUserById_ShouldReturnNotModified_WhenIfNoneMatchIsCurrent() throws Exception {
+        // Given
+        testUser.setVersion(3L);
+        when(userService.findUserById(1L)).thenReturn(testUser);
+
+        // When & Then
+        mockMvc.perform(get("/api/users/1")
+                        .header("If-None-Match", "W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+    }
+
+    @Test
+    void updateUser_ShouldPassIfMatchVersionAndReturnPreconditionFailed() throws Exception {
+        // Given
+        when(userService.updateUser(eq(1L), any(User.class), eq(2L)))
+                .thenThrow(new PreconditionFailedException("La versión del usuario con ID 1 no coincide con If-Match"));
+
+        // When & Then
+        mockMvc.perform(put("/api/users/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(testUser)))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.status").value(412));
+    }
+
+    @Test
+    void patchUser_ShouldReturnPreconditionFailed_WhenIfMatchIsNotAVersion() throws Exception {
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                        .header("If-Match", "W/\"2\"")
+                        .contentType(UserController.MERGE_PATCH_JSON_VALUE)
+                        .content("{}"))
+                .andExpect(status().isPreconditionFailed());
+
+        verifyNoInteractions(userService);
+    }
+
+    @Test
+    void toggleUserStatus_ShouldReturnConflict_WhenOptimisticLockFails() throws Exception {
+        // Given
+        when(userService.toggleUserStatus(1L, null))
+                .thenThrow(new OptimisticLockingFailureException("Row was updated by another transaction"));
+
+        // When & Then
+        mockMvc.perform(patch("/api/users/1/toggle-status"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void patchUser_ShouldAcceptMergePatch() throws Exception {
+        // Given
+        when(userService.patchUser(eq(1L), any(), isNull())).thenReturn(testUser);
+
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(UserController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"phone\":\"600111222\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(userService).patchUser(eq(1L), argThat(patch -> patch.get("phone").asText().equals("600111222")), isNull());
+    }
+
+    @Test
+    void patchUser_ShouldReturnBadRequest_WhenFieldIsNotPatchable() throws Exception {
+        // Given
+        when(userService.patchUser(eq(1L), any(), isNull()))
+                .thenThrow(new IllegalArgumentException("El campo no se puede modificar: id"));
+
+        // When & Then
+        mockMvc.perform(patch("/api/users/1")
+                        .contentType(UserController.MERGE_PATCH_JSON_VALUE)
+                        .content("{\"id\":2}"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void updateUser_ShouldReturnUpdatedUser() throws Exception {
         // Given
@@ -267,7 +552,7 @@ class UserControllerMockMvcTest {
         updatedUser.setMembershipType(MembershipType.STUDENT);
         updatedUser.setIsActive(false);
 
-        when(userService.updateUser(eq(1L), any(User.class))).thenReturn(updatedUser);
+        when(userService.updateUser(eq(1L), any(User.class), isNull())).thenReturn(updatedUser);
 
         // When & Then
         mockMvc.perform(put("/api/users/1")
@@ -279,7 +564,7 @@ class UserControllerMockMvcTest {
                 .andExpect(jsonPath("$.membershipType").value("STUDENT"))
                 .andExpect(jsonPath("$.isActive").value(false));
 
-        verify(userService).updateUser(eq(1L), any(User.class));
+        verify(userService).updateUser(eq(1L), any(User.class), isNull());
     }
 
     @Test
@@ -292,7 +577,7 @@ class UserControllerMockMvcTest {
         toggledUser.setMembershipType(MembershipType.PREMIUM);
         toggledUser.setIsActive(false); // Cambiado a false
 
-        when(userService.toggleUserStatus(1L)).thenReturn(toggledUser);
+        when(userService.toggleUserStatus(1L, null)).thenReturn(toggledUser);
 
         // When & Then
         mockMvc.perform(patch("/api/users/1/toggle-status"))
@@ -300,7 +585,7 @@ class UserControllerMockMvcTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.isActive").value(false));
 
-        verify(userService).toggleUserStatus(1L);
+        verify(userService).toggleUserStatus(1L, null);
     }
 
     @Test
@@ -313,7 +598,7 @@ class UserControllerMockMvcTest {
         updatedUser.setMembershipType(MembershipType.BASIC);
         updatedUser.setIsActive(true);
 
-        when(userService.updateMembershipType(1L, MembershipType.BASIC)).thenReturn(updatedUser);
+        when(userService.updateMembershipType(1L, MembershipType.BASIC, null)).thenReturn(updatedUser);
 
         // When & Then
         mockMvc.perform(patch("/api/users/1/membership")
@@ -322,7 +607,7 @@ class UserControllerMockMvcTest {
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(jsonPath("$.membershipType").value("BASIC"));
 
-        verify(userService).updateMembershipType(1L, MembershipType.BASIC);
+        verify(userService).updateMembershipType(1L, MembershipType.BASIC, null);
     }
 
     @Test
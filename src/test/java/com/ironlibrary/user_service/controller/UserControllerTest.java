@@ -1,7 +1,9 @@
 package com.ironlibrary.user_service.controller;
 
+import com.ironlibrary.user_service.dto.UserSummary;
 import com.ironlibrary.user_service.model.MembershipType;
 import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.service.UserFilter;
 import com.ironlibrary.user_service.service.UserService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -13,8 +15,8 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import java.time.LocalDate;
-import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -51,18 +53,19 @@ class UserControllerTest {
     @Test
     void getAllUsers_ShouldReturnUserList() {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findAllUsers()).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.all())).thenReturn(users);
 
         // When
-        ResponseEntity<List<User>> response = userController.getAllUsers();
+        ResponseEntity<?> response = userController.getAllUsers(null, null, null);
+        List<UserSummary> body = body(response);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals("Juan Pérez", response.getBody().get(0).getName());
-        verify(userService).findAllUsers();
+        assertEquals(1, body.size());
+        assertEquals("Juan Pérez", body.get(0).name());
+        verify(userService).findUsers(UserFilter.all());
     }
 
     @Test
@@ -71,13 +74,14 @@ class UserControllerTest {
         when(userService.findUserById(1L)).thenReturn(testUser);
 
         // When
-        ResponseEntity<User> response = userController.getUserById(1L);
+        ResponseEntity<?> response = userController.getUserById(1L, null, null);
+        User body = body(response);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals("Juan Pérez", response.getBody().getName());
-        assertEquals("juan.perez@email.com", response.getBody().getEmail());
+        assertEquals("Juan Pérez", body.getName());
+        assertEquals("juan.perez@email.com", body.getEmail());
         verify(userService).findUserById(1L);
     }
 
@@ -87,98 +91,104 @@ class UserControllerTest {
         when(userService.findUserByEmail("juan.perez@email.com")).thenReturn(testUser);
 
         // When
-        ResponseEntity<User> response = userController.getUserByEmail("juan.perez@email.com");
+        ResponseEntity<?> response = userController.getUserByEmail("juan.perez@email.com", null, null);
+        User body = body(response);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals("juan.perez@email.com", response.getBody().getEmail());
+        assertEquals("juan.perez@email.com", body.getEmail());
         verify(userService).findUserByEmail("juan.perez@email.com");
     }
 
     @Test
     void getActiveUsers_ShouldReturnActiveUsers() {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findActiveUsers()).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.active())).thenReturn(users);
 
         // When
-        ResponseEntity<List<User>> response = userController.getActiveUsers();
+        ResponseEntity<?> response = userController.getActiveUsers(null, null, null);
+        List<UserSummary> body = body(response);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertTrue(response.getBody().get(0).getIsActive());
-        verify(userService).findActiveUsers();
+        assertEquals(1, body.size());
+        assertTrue(body.get(0).isActive());
+        verify(userService).findUsers(UserFilter.active());
     }
 
     @Test
     void getInactiveUsers_ShouldReturnInactiveUsers() {
         // Given
         testUser.setIsActive(false);
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findInactiveUsers()).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.inactive())).thenReturn(users);
 
         // When
-        ResponseEntity<List<User>> response = userController.getInactiveUsers();
+        ResponseEntity<?> response = userController.getInactiveUsers(null, null, null);
+        List<UserSummary> body = body(response);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertFalse(response.getBody().get(0).getIsActive());
-        verify(userService).findInactiveUsers();
+        assertEquals(1, body.size());
+        assertFalse(body.get(0).isActive());
+        verify(userService).findUsers(UserFilter.inactive());
     }
 
     @Test
     void getUsersWhoCanBorrow_ShouldReturnEligibleUsers() {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findUsersWhoCanBorrow()).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.canBorrow())).thenReturn(users);
 
         // When
-        ResponseEntity<List<User>> response = userController.getUsersWhoCanBorrow();
+        ResponseEntity<?> response = userController.getUsersWhoCanBorrow(null, null, null);
+        List<UserSummary> body = body(response);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        verify(userService).findUsersWhoCanBorrow();
+        assertEquals(1, body.size());
+        verify(userService).findUsers(UserFilter.canBorrow());
     }
 
     @Test
     void getUsersByMembership_ShouldReturnUsersOfMembership() {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findByMembershipType(MembershipType.PREMIUM)).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findUsers(UserFilter.membership(MembershipType.PREMIUM))).thenReturn(users);
 
         // When
-        ResponseEntity<List<User>> response = userController.getUsersByMembership(MembershipType.PREMIUM);
+        ResponseEntity<?> response = userController.getUsersByMembership(MembershipType.PREMIUM, null, null, null);
+        List<UserSummary> body = body(response);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertEquals(MembershipType.PREMIUM, response.getBody().get(0).getMembershipType());
-        verify(userService).findByMembershipType(MembershipType.PREMIUM);
+        assertEquals(1, body.size());
+        assertEquals(MembershipType.PREMIUM, body.get(0).membershipType());
+        verify(userService).findUsers(UserFilter.membership(MembershipType.PREMIUM));
     }
 
     @Test
     void getUsersByName_ShouldReturnUsersByName() {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userService.findByName("Juan")).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userService.findByName("Juan", 0, 50)).thenReturn(users);
 
         // When
-        ResponseEntity<List<User>> response = userController.getUsersByName("Juan");
+        ResponseEntity<?> response = userController.getUsersByName("Juan", null, 0, 50);
+        List<UserSummary> body = body(response);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
-        assertEquals(1, response.getBody().size());
-        assertTrue(response.getBody().get(0).getName().contains("Juan"));
-        verify(userService).findByName("Juan");
+        assertEquals(1, body.size());
+        assertTrue(body.get(0).name().contains("Juan"));
+        verify(userService).findByName("Juan", 0, 50);
     }
 
     @Test
@@ -212,7 +222,9 @@ class UserControllerTest {
     @Test
     void getUserStats_ShouldReturnStats() {
         // Given
-        UserService.UserStats stats = new UserService.UserStats(100L, 85L, 30L, 40L, 30L);
+        UserService.UserStats stats = new UserService.UserStats(100L, 85L,
+                Map.of(MembershipType.BASIC, 30L, MembershipType.PREMIUM, 40L, MembershipType.STUDENT, 30L),
+                Map.of(MembershipType.BASIC, 25L, MembershipType.PREMIUM, 40L, MembershipType.STUDENT, 20L));
         when(userService.getUserStats()).thenReturn(stats);
 
         // When
@@ -251,49 +263,49 @@ class UserControllerTest {
         updatedUser.setMembershipType(MembershipType.STUDENT);
         updatedUser.setIsActive(false);
 
-        when(userService.updateUser(eq(1L), any(User.class))).thenReturn(updatedUser);
+        when(userService.updateUser(eq(1L), any(User.class), isNull())).thenReturn(updatedUser);
 
         // When
-        ResponseEntity<User> response = userController.updateUser(1L, updatedUser);
+        ResponseEntity<User> response = userController.updateUser(1L, updatedUser, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals("Juan Carlos Pérez", response.getBody().getName());
         assertEquals("juan.carlos@email.com", response.getBody().getEmail());
-        verify(userService).updateUser(eq(1L), any(User.class));
+        verify(userService).updateUser(eq(1L), any(User.class), isNull());
     }
 
     @Test
     void toggleUserStatus_ShouldReturnToggledUser() {
         // Given
         testUser.setIsActive(false);
-        when(userService.toggleUserStatus(1L)).thenReturn(testUser);
+        when(userService.toggleUserStatus(1L, null)).thenReturn(testUser);
 
         // When
-        ResponseEntity<User> response = userController.toggleUserStatus(1L);
+        ResponseEntity<User> response = userController.toggleUserStatus(1L, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertFalse(response.getBody().getIsActive());
-        verify(userService).toggleUserStatus(1L);
+        verify(userService).toggleUserStatus(1L, null);
     }
 
     @Test
     void updateMembershipType_ShouldReturnUpdatedUser() {
         // Given
         testUser.setMembershipType(MembershipType.BASIC);
-        when(userService.updateMembershipType(1L, MembershipType.BASIC)).thenReturn(testUser);
+        when(userService.updateMembershipType(1L, MembershipType.BASIC, null)).thenReturn(testUser);
 
         // When
-        ResponseEntity<User> response = userController.updateMembershipType(1L, MembershipType.BASIC);
+        ResponseEntity<User> response = userController.updateMembershipType(1L, MembershipType.BASIC, null);
 
         // Then
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertNotNull(response.getBody());
         assertEquals(MembershipType.BASIC, response.getBody().getMembershipType());
-        verify(userService).updateMembershipType(1L, MembershipType.BASIC);
+        verify(userService).updateMembershipType(1L, MembershipType.BASIC, null);
     }
 
     @Test
@@ -318,4 +330,9 @@ class UserControllerTest {
         assertEquals(HttpStatus.OK, response.getStatusCode());
         assertEquals("User Service is running on port 8082", response.getBody());
     }
-}
\ No newline at end of file
+
+    @SuppressWarnings("unchecked")
+    private static <T> T body(ResponseEntity<?> response) {
+        return (T) response.getBody();
+    }
+}
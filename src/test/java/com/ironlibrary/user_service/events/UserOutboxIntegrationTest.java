@@ -0,0 +1,181 @@
+package com.ironlibrary.user_service.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironlibrary.user_service.exception.EmailAlreadyExistsException;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.UserRepository;
+import com.ironlibrary.user_service.service.UserImportService;
+import com.ironlibrary.user_service.service.UserService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de integración del outbox de eventos de usuario sobre H2,
+ * con el publicador local (eventos de aplicación de Spring)
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@RecordApplicationEvents
+class UserOutboxIntegrationTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserOutboxRelay relay;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM user_outbox");
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM user_outbox");
+    }
+
+    @Test
+    void relay_ShouldPublishEveryWriteInOrderWithResultingState() {
+        // Given
+        User user = userService.saveUser(new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC));
+        userService.updateMembershipType(user.getId(), MembershipType.PREMIUM, null);
+        userService.toggleUserStatus(user.getId(), null);
+        userService.deleteUser(user.getId());
+
+        // When
+        int published = relay.relay();
+
+        // Then
+        List<UserChangeEvent> events = applicationEvents.stream(UserChangeEvent.class).toList();
+        assertEquals(4, published);
+        assertEquals(List.of(UserChangeType.CREATED, UserChangeType.MEMBERSHIP_CHANGED,
+                UserChangeType.DEACTIVATED, UserChangeType.DELETED), events.stream().map(UserChangeEvent::type).toList());
+        assertTrue(events.stream().allMatch(event -> user.getId().equals(event.userId())));
+        assertEquals(MembershipType.PREMIUM, events.get(1).membershipType());
+        assertFalse(events.get(2).isActive());
+        assertTrue(events.get(0).eventId() < events.get(3).eventId());
+        assertTrue(events.get(0).version() < events.get(1).version());
+        assertTrue(events.get(1).version() < events.get(2).version());
+        assertTrue(events.get(3).version() > events.get(2).version());
+        assertEquals(0, relay.relay());
+    }
+
+    @Test
+    void outbox_ShouldNotRecordEvents_WhenWriteRollsBack() {
+        // Given
+        userService.saveUser(new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC));
+
+        // When
+        assertThrows(EmailAlreadyExistsException.class,
+                () -> userService.saveUser(new User("Otro Juan", "juan.perez@email.com", MembershipType.BASIC)));
+
+        // Then
+        assertEquals(1, relay.relay());
+        assertEquals(1, applicationEvents.stream(UserChangeEvent.class).count());
+    }
+
+    @Test
+    void outbox_ShouldRecordOneCreatedEventPerImportedUser() {
+        // Given
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            users.add(new User("Usuario " + i, "usuario" + i + "@email.com", MembershipType.STUDENT));
+        }
+
+        // When
+        userImportService.importUsers(users);
+        relay.relay();
+
+        // Then
+        assertEquals(List.of("usuario0@email.com", "usuario1@email.com", "usuario2@email.com"),
+                applicationEvents.stream(UserChangeEvent.class).map(UserChangeEvent::email).toList());
+    }
+
+    @Test
+    void relay_ShouldRetryFromFailedEvent_WhenPublisherFails() {
+        // Given
+        userService.saveUser(new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC));
+        userService.saveUser(new User("Ana García", "ana.garcia@email.com", MembershipType.BASIC));
+        List<String> delivered = new ArrayList<>();
+        UserOutboxRelay failingOnAna = relayWith(event -> {
+            if (event.email().startsWith("ana")) {
+                throw new IllegalStateException("broker no disponible");
+            }
+            delivered.add(event.email());
+        });
+
+        // When
+        int firstRun = failingOnAna.relay();
+        int secondRun = relay.relay();
+
+        // Then
+        assertEquals(1, firstRun);
+        assertEquals(List.of("juan.perez@email.com"), delivered);
+        assertEquals(1, secondRun);
+        assertEquals(List.of("ana.garcia@email.com"),
+                applicationEvents.stream(UserChangeEvent.class).map(UserChangeEvent::email).toList());
+    }
+
+    @Test
+    void purgePublished_ShouldOnlyDeletePublishedEventsPastRetention() {
+        // Given
+        userService.saveUser(new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC));
+        relay.relay();
+        userService.saveUser(new User("Ana García", "ana.garcia@email.com", MembershipType.BASIC));
+
+        // When
+        int purged = relayWith(event -> { }, Duration.ZERO).purgePublished();
+
+        // Then
+        assertEquals(1, purged);
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM user_outbox WHERE published_at IS NULL", Integer.class));
+    }
+
+    private UserOutboxRelay relayWith(UserEventPublisher publisher) {
+        return relayWith(publisher, Duration.ofDays(7));
+    }
+
+    private UserOutboxRelay relayWith(UserEventPublisher publisher, Duration retention) {
+        return new UserOutboxRelay(namedParameterJdbcTemplate, transactionManager, publisher, objectMapper, 100, retention);
+    }
+}
@@ -0,0 +1,64 @@
+package com.ironlibrary.user_service.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.sql.Statement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ConstraintViolations, incluidas las bases de datos
+ * creadas antes de nombrar la clave única del email (uk_users_email)
+ */
+class ConstraintViolationsTest {
+
+    @Test
+    void isDuplicateEmail_ShouldMatchNamedKey() {
+        SQLException cause = new SQLIntegrityConstraintViolationException(
+                "Duplicate entry 'juan.perez@email.com' for key 'users.uk_users_email'", "23000", 1062);
+
+        assertTrue(ConstraintViolations.isDuplicateEmail(wrap(cause)));
+    }
+
+    @Test
+    void isDuplicateEmail_ShouldMatchUnnamedMySqlKey() {
+        SQLException cause = new SQLIntegrityConstraintViolationException(
+                "Duplicate entry 'juan.perez@email.com' for key 'users.email'", "23000", 1062);
+
+        assertTrue(ConstraintViolations.isDuplicateEmail(wrap(cause)));
+    }
+
+    @Test
+    void isDuplicateEmail_ShouldMatchUnnamedH2Key() throws SQLException {
+        try (Connection connection = DriverManager.getConnection("jdbc:h2:mem:constraint_violations", "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE users (id BIGINT PRIMARY KEY, email VARCHAR(150) NOT NULL UNIQUE)");
+            statement.execute("INSERT INTO users VALUES (1, 'juan.perez@email.com')");
+
+            SQLException cause = assertThrows(SQLException.class,
+                    () -> statement.execute("INSERT INTO users VALUES (2, 'juan.perez@email.com')"));
+
+            assertTrue(ConstraintViolations.isDuplicateEmail(wrap(cause)));
+        }
+    }
+
+    @Test
+    void isDuplicateEmail_ShouldIgnoreOtherKeys() {
+        SQLException primaryKey = new SQLIntegrityConstraintViolationException(
+                "Duplicate entry '1-email' for key 'user_name_tokens.PRIMARY'", "23000", 1062);
+        SQLException notNull = new SQLIntegrityConstraintViolationException(
+                "Column 'email' cannot be null", "23000", 1048);
+
+        assertFalse(ConstraintViolations.isDuplicateEmail(wrap(primaryKey)));
+        assertFalse(ConstraintViolations.isDuplicateEmail(wrap(notNull)));
+    }
+
+    private static DataIntegrityViolationException wrap(SQLException cause) {
+        return new DataIntegrityViolationException("could not execute statement", cause);
+    }
+}
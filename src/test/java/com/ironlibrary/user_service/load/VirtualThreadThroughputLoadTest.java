@@ -0,0 +1,279 @@
+package com.ironlibrary.user_service.load;
+
+import com.ironlibrary.user_service.UserServiceApplication;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test de carga: compara el throughput de un endpoint que consulta la base de
+ * datos con hilos de plataforma y con hilos virtuales. Cada consulta JDBC
+ * añade una latencia fija para simular la red hasta MySQL.
+ *
+ * Los dos modos usan la configuración de producción: el pool de Hikari de
+ * application.properties y los hilos por defecto de Tomcat. Con esa
+ * configuración el límite de las consultas lo pone el pool y no el número de
+ * hilos, así que el test comprueba que los hilos virtuales no empeoran ese
+ * throughput y que ninguno de los dos modos supera el techo del pool. Las
+ * peticiones que no obtienen conexión en connection-timeout se registran, no
+ * se ocultan.
+ *
+ * Con el pool saturado, otros clientes piden a la vez un usuario en caché, que
+ * no necesita conexión. Con hilos de plataforma esas peticiones esperan a que
+ * quede libre alguno de los hilos de Tomcat bloqueados esperando al pool; con
+ * hilos virtuales no esperan. El test exige que su latencia quede acotada y
+ * que su throughput multiplique el de los hilos de plataforma.
+ *
+ * No se ejecuta con mvn test; usar: mvn test -Pload-test
+ */
+@Slf4j
+@Tag("load")
+class VirtualThreadThroughputLoadTest {
+
+    private static final long QUERY_LATENCY_MS = 200;
+    private static final int CONCURRENT_CLIENTS = 400;
+    private static final int REQUESTS = 2000;
+    private static final int CACHE_HIT_CLIENTS = 20;
+    private static final long CACHE_HIT_P90_BOUND_MS = 250;
+    private static final double CACHE_HIT_MIN_SPEEDUP = 2.0;
+
+    /**
+     * La latencia solo se aplica durante la medición, no al arrancar ni al cargar datos
+     */
+    private static volatile boolean slowQueries;
+
+    @Test
+    void virtualThreads_ShouldKeepPoolThroughputAndServeCacheHitsWhileThePoolIsSaturated() throws Exception {
+        Measurement platform = measure(false);
+        Measurement virtual = measure(true);
+
+        log.info("Throughput GET /api/users?limit=20 con {} clientes, {} ms por consulta y {} conexiones: "
+                        + "plataforma ({} hilos) {} req/s y {} fallidas; virtuales {} req/s y {} fallidas",
+                CONCURRENT_CLIENTS, QUERY_LATENCY_MS, platform.poolSize(),
+                platform.tomcatThreads(), Math.round(platform.throughput()), platform.failed(),
+                Math.round(virtual.throughput()), virtual.failed());
+
+        for (Measurement measurement : List.of(platform, virtual)) {
+            double poolCeiling = measurement.poolSize() * 1000.0 / QUERY_LATENCY_MS;
+            assertTrue(measurement.throughput() <= poolCeiling * 1.1,
+                    "El throughput no puede superar el techo del pool: " + measurement);
+        }
+        assertTrue(virtual.throughput() >= platform.throughput() * 0.8,
+                "Los hilos virtuales no deberían reducir el throughput: " + virtual + " frente a " + platform);
+
+        log.info("Aciertos de caché con el pool saturado ({} clientes): plataforma {} req/s y p90 {} ms; "
+                        + "virtuales {} req/s y p90 {} ms",
+                CACHE_HIT_CLIENTS, Math.round(platform.cacheHits().throughput()), platform.cacheHits().p90Millis(),
+                Math.round(virtual.cacheHits().throughput()), virtual.cacheHits().p90Millis());
+
+        assertTrue(virtual.cacheHits().p90Millis() <= CACHE_HIT_P90_BOUND_MS,
+                "Con hilos virtuales los aciertos de caché no deberían esperar al pool: " + virtual.cacheHits());
+        assertTrue(virtual.cacheHits().throughput() >= platform.cacheHits().throughput() * CACHE_HIT_MIN_SPEEDUP,
+                "Con el pool saturado, los hilos virtuales deberían servir al menos " + CACHE_HIT_MIN_SPEEDUP
+                        + " veces más aciertos de caché: " + virtual.cacheHits() + " frente a " + platform.cacheHits());
+    }
+
+    private Measurement measure(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(
+                UserServiceApplication.class, SlowJdbcConfig.class)
+                .profiles("test")
+                .run("--spring.threads.virtual.enabled=" + virtualThreads,
+                        "--spring.datasource.url=jdbc:h2:mem:load_" + virtualThreads + ";DB_CLOSE_DELAY=-1",
+                        "--spring.jpa.show-sql=false",
+                        "--logging.level.com.ironlibrary=WARN",
+                        "--logging.level.com.ironlibrary.user_service.load=INFO")) {
+
+            UserRepository userRepository = context.getBean(UserRepository.class);
+            Long firstId = null;
+            for (int i = 0; i < 100; i++) {
+                User user = userRepository.save(new User("Usuario " + i, "usuario" + i + "@email.com", MembershipType.BASIC));
+                if (firstId == null) {
+                    firstId = user.getId();
+                }
+            }
+
+            int poolSize = context.getEnvironment()
+                    .getRequiredProperty("spring.datasource.hikari.maximum-pool-size", Integer.class);
+            int tomcatThreads = context.getBean(ServerProperties.class).getTomcat().getThreads().getMax();
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + port + "/api/users?limit=20");
+            URI cachedUri = URI.create("http://localhost:" + port + "/api/users/" + firstId);
+            // Cargar el usuario en la caché antes de añadir latencia
+            runRequests(cachedUri, 1);
+
+            slowQueries = true;
+            try {
+                // Calentamiento
+                runRequests(uri, CONCURRENT_CLIENTS);
+                long start = System.nanoTime();
+                int failed = runRequests(uri, REQUESTS);
+                double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+                CacheHits cacheHits = measureCacheHitsDuring(uri, cachedUri);
+                return new Measurement(virtualThreads, poolSize, tomcatThreads,
+                        (REQUESTS - failed) / seconds, failed, cacheHits);
+            } finally {
+                slowQueries = false;
+            }
+        }
+    }
+
+    /**
+     * Satura el pool con peticiones a dbUri y, mientras dura esa carga, mide las
+     * peticiones a cachedUri que lanzan CACHE_HIT_CLIENTS clientes en bucle.
+     * Solo cuentan las respuestas 200 recibidas antes de que termine la carga.
+     */
+    private static CacheHits measureCacheHitsDuring(URI dbUri, URI cachedUri) throws Exception {
+        List<Long> latenciesMillis = Collections.synchronizedList(new ArrayList<>());
+        AtomicBoolean loading = new AtomicBoolean(true);
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(clients).build()) {
+            HttpRequest request = HttpRequest.newBuilder(cachedUri).timeout(Duration.ofSeconds(30)).GET().build();
+            List<Future<?>> pending = new ArrayList<>(CACHE_HIT_CLIENTS);
+            long start = System.nanoTime();
+            for (int i = 0; i < CACHE_HIT_CLIENTS; i++) {
+                pending.add(clients.submit(() -> {
+                    while (loading.get()) {
+                        long sent = System.nanoTime();
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            if (response.statusCode() == 200 && loading.get()) {
+                                latenciesMillis.add((System.nanoTime() - sent) / 1_000_000);
+                            }
+                        } catch (IOException e) {
+                            // Se cuenta como no servida
+                        }
+                    }
+                    return null;
+                }));
+            }
+            runRequests(dbUri, REQUESTS);
+            loading.set(false);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+            for (Future<?> future : pending) {
+                future.get();
+            }
+            List<Long> sorted = latenciesMillis.stream().sorted().toList();
+            long p90 = sorted.isEmpty() ? Long.MAX_VALUE : sorted.get((int) Math.ceil(sorted.size() * 0.9) - 1);
+            return new CacheHits(sorted.size() / seconds, p90);
+        }
+    }
+
+    /**
+     * Lanza las peticiones y devuelve cuántas no respondieron 200
+     */
+    private static int runRequests(URI uri, int requests) throws Exception {
+        Semaphore inFlight = new Semaphore(CONCURRENT_CLIENTS);
+        AtomicInteger failures = new AtomicInteger();
+        try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor();
+             HttpClient http = HttpClient.newBuilder().executor(clients).build()) {
+            HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+            List<Future<?>> pending = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                inFlight.acquire();
+                pending.add(clients.submit(() -> {
+                    try {
+                        HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() != 200) {
+                            failures.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        failures.incrementAndGet();
+                    } finally {
+                        inFlight.release();
+                    }
+                }));
+            }
+            for (Future<?> future : pending) {
+                future.get();
+            }
+        }
+        return failures.get();
+    }
+
+    /**
+     * Resultado de un modo: solo cuentan como servidas las peticiones con respuesta 200
+     */
+    private record Measurement(boolean virtualThreads, int poolSize, int tomcatThreads,
+                               double throughput, int failed, CacheHits cacheHits) {
+    }
+
+    /**
+     * Aciertos de caché servidos mientras el pool estaba saturado
+     */
+    private record CacheHits(double throughput, long p90Millis) {
+    }
+
+    /**
+     * Envuelve el DataSource para añadir latencia a cada sentencia ejecutada
+     */
+    @Configuration(proxyBeanMethods = false)
+    static class SlowJdbcConfig {
+
+        @Bean
+        static BeanPostProcessor slowDataSourcePostProcessor() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (bean instanceof DataSource dataSource) {
+                        return slow(DataSource.class, dataSource);
+                    }
+                    return bean;
+                }
+            };
+        }
+
+        private static <T> T slow(Class<T> type, T target) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type},
+                    (proxy, method, args) -> {
+                        if (slowQueries && method.getName().startsWith("execute")) {
+                            Thread.sleep(QUERY_LATENCY_MS);
+                        }
+                        try {
+                            Object result = method.invoke(target, args);
+                            if (result instanceof Connection connection) {
+                                return slow(Connection.class, connection);
+                            }
+                            if (result instanceof PreparedStatement statement) {
+                                return slow(PreparedStatement.class, statement);
+                            }
+                            return result;
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }));
+        }
+    }
+}
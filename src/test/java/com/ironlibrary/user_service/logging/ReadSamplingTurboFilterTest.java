@@ -0,0 +1,71 @@
+package com.ironlibrary.user_service.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MarkerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para ReadSamplingTurboFilter
+ */
+class ReadSamplingTurboFilterTest {
+
+    private final Logger logger = new LoggerContext().getLogger("test");
+
+    @Test
+    void decide_ShouldIgnoreEventsWithoutReadMarker() {
+        ReadSamplingTurboFilter filter = filterWithRate(0);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(null, logger, Level.INFO, "msg", null, null));
+        assertEquals(FilterReply.NEUTRAL,
+                filter.decide(MarkerFactory.getMarker("OTHER"), logger, Level.INFO, "msg", null, null));
+    }
+
+    @Test
+    void decide_ShouldNeverSampleWarningsOrErrors() {
+        ReadSamplingTurboFilter filter = filterWithRate(0);
+
+        assertEquals(FilterReply.NEUTRAL, filter.decide(LogMarkers.READ, logger, Level.WARN, "msg", null, null));
+        assertEquals(FilterReply.NEUTRAL, filter.decide(LogMarkers.READ, logger, Level.ERROR, "msg", null, null));
+    }
+
+    @Test
+    void decide_ShouldLetEveryReadThrough_WhenRateIsOne() {
+        ReadSamplingTurboFilter filter = filterWithRate(1);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals(FilterReply.NEUTRAL, filter.decide(LogMarkers.READ, logger, Level.INFO, "msg", null, null));
+        }
+    }
+
+    @Test
+    void decide_ShouldDenyEveryRead_WhenRateIsZero() {
+        ReadSamplingTurboFilter filter = filterWithRate(0);
+
+        assertEquals(FilterReply.DENY, filter.decide(LogMarkers.READ, logger, Level.INFO, "msg", null, null));
+    }
+
+    @Test
+    void decide_ShouldKeepRoughlyOneReadPerSampleRate() {
+        ReadSamplingTurboFilter filter = filterWithRate(10);
+
+        int kept = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.decide(LogMarkers.READ, logger, Level.INFO, "msg", null, null) == FilterReply.NEUTRAL) {
+                kept++;
+            }
+        }
+
+        assertTrue(kept > 700 && kept < 1300, "eventos conservados: " + kept);
+    }
+
+    private static ReadSamplingTurboFilter filterWithRate(int rate) {
+        ReadSamplingTurboFilter filter = new ReadSamplingTurboFilter();
+        filter.setSampleRate(rate);
+        return filter;
+    }
+}
@@ -0,0 +1,95 @@
+package com.ironlibrary.user_service.metrics;
+
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.UserRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Test de integración de las métricas de UserService y del conteo de SQL por petición
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class UserMetricsIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.save(new User("Juan Pérez", "juan.perez@email.com", MembershipType.PREMIUM));
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void serviceOperations_ShouldRecordLatencyAndErrorsByExceptionType() throws Exception {
+        // When
+        mockMvc.perform(get("/api/users/{id}", -1L)).andExpect(status().isNotFound());
+
+        // Then
+        Timer timer = meterRegistry.find(UserServiceMetricsAspect.OPERATIONS_TIMER)
+                .tags("operation", "UserService.findUserById", "outcome", "error",
+                        "exception", "UserNotFoundException")
+                .timer();
+        assertNotNull(timer);
+        assertTrue(timer.count() >= 1);
+        assertTrue(meterRegistry.get(UserServiceMetricsAspect.ERRORS_COUNTER)
+                .tags("operation", "UserService.findUserById", "exception", "UserNotFoundException")
+                .counter().count() >= 1);
+    }
+
+    @Test
+    void requests_ShouldPublishQueryCountPerUriPattern() throws Exception {
+        // When
+        mockMvc.perform(get("/api/users").param("limit", "5")).andExpect(status().isOk());
+
+        // Then
+        DistributionSummary queries = meterRegistry.get(QueryCountFilter.QUERIES_SUMMARY)
+                .tags("method", "GET", "uri", "/api/users")
+                .summary();
+        assertTrue(queries.count() >= 1);
+        assertTrue(queries.max() >= 1);
+    }
+
+    @Test
+    void prometheusEndpoint_ShouldExposeServiceMetrics() throws Exception {
+        // Given
+        mockMvc.perform(get("/api/users/stats")).andExpect(status().isOk());
+
+        // When & Then
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("users_service_operations_seconds")))
+                .andExpect(content().string(containsString("hikaricp_connections_acquire_seconds")));
+    }
+}
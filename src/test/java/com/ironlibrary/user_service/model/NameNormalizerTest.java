@@ -0,0 +1,50 @@
+package com.ironlibrary.user_service.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests unitarios para NameNormalizer
+ */
+class NameNormalizerTest {
+
+    @Test
+    void tokens_ShouldLowercaseAndFoldAccents() {
+        // When
+        Set<String> tokens = NameNormalizer.tokens("José Ángel Núñez-Güell");
+
+        // Then
+        assertEquals(List.of("jose", "angel", "nunez", "guell"), List.copyOf(tokens));
+    }
+
+    @Test
+    void tokens_ShouldIgnoreRepeatedWordsAndSeparators() {
+        // When
+        Set<String> tokens = NameNormalizer.tokens("  María  de la  María ");
+
+        // Then
+        assertEquals(List.of("maria", "de", "la"), List.copyOf(tokens));
+    }
+
+    @Test
+    void tokens_ShouldReturnEmpty_WhenNameIsNullOrBlank() {
+        assertTrue(NameNormalizer.tokens(null).isEmpty());
+        assertTrue(NameNormalizer.tokens("  -- ").isEmpty());
+    }
+
+    @Test
+    void user_ShouldReindexTokens_WhenNameChanges() {
+        // Given
+        User user = new User("Juan Pérez", "juan@email.com", MembershipType.BASIC);
+
+        // When
+        user.setName("Ana García");
+
+        // Then
+        assertEquals(Set.of("ana", "garcia"), user.getNameTokens());
+    }
+}
@@ -0,0 +1,115 @@
+package com.ironlibrary.user_service.repository;
+
+import com.ironlibrary.user_service.UserServiceApplication;
+import com.ironlibrary.user_service.dto.UserSummary;
+import com.ironlibrary.user_service.exception.EmailAlreadyExistsException;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.service.UserService;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Arranca el servicio sobre una base de datos con el esquema que generaba
+ * Hibernate con ddl-auto=update (sin historial de Flyway), como las
+ * instalaciones existentes. Flyway la marca como V1 y aplica el resto de
+ * migraciones; después Hibernate valida el esquema al arrancar.
+ */
+class LegacySchemaMigrationTest {
+
+    private static final String URL = "jdbc:h2:mem:user_legacydb;DB_CLOSE_DELAY=-1";
+
+    /**
+     * DDL generado por Hibernate para la entidad User original en H2
+     */
+    private static final String LEGACY_USERS_DDL =
+            "create table users (is_active boolean not null, registration_date date, " +
+            "id bigint generated by default as identity, phone varchar(20), name varchar(100) not null, " +
+            "email varchar(150) not null unique, address varchar(255), " +
+            "membership_type enum ('BASIC','PREMIUM','STUDENT') not null, primary key (id))";
+
+    private static ConfigurableApplicationContext context;
+
+    @BeforeAll
+    static void startOnLegacySchema() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute(LEGACY_USERS_DDL);
+            statement.execute("insert into users (name, email, membership_type, is_active, registration_date) " +
+                    "values ('José Núñez', 'jose.nunez@email.com', 'PREMIUM', true, DATE '2023-05-10')");
+            statement.execute("insert into users (name, email, membership_type, is_active) " +
+                    "values ('Ana García', 'ana.garcia@email.com', 'BASIC', false)");
+            statement.execute("insert into users (name, email, membership_type, is_active) " +
+                    "values ('---', 'sin.nombre@email.com', 'BASIC', true)");
+        }
+
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles("test")
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=" + URL,
+                        "--spring.flyway.baseline-on-migrate=true",
+                        "--spring.flyway.baseline-version=1");
+    }
+
+    @AfterAll
+    static void stop() {
+        context.close();
+    }
+
+    @Test
+    void migrate_ShouldApplyEveryMigrationAfterBaseline() {
+        Flyway flyway = context.getBean(Flyway.class);
+
+        assertEquals("1", flyway.info().applied()[0].getVersion().getVersion());
+        assertEquals(0, flyway.info().pending().length);
+    }
+
+    @Test
+    void migrate_ShouldStartExistingUsersAtVersionZero() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        assertEquals(List.of(0L, 0L, 0L), jdbcTemplate.queryForList("SELECT version FROM users ORDER BY id", Long.class));
+    }
+
+    @Test
+    void migrate_ShouldNameEmailUniqueKey() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        assertEquals(List.of("UK_USERS_EMAIL"), jdbcTemplate.queryForList(
+                "SELECT constraint_name FROM information_schema.table_constraints " +
+                "WHERE table_name = 'USERS' AND constraint_type = 'UNIQUE'", String.class));
+        assertThrows(EmailAlreadyExistsException.class, () -> context.getBean(UserService.class)
+                .saveUser(new User("Otro José", "jose.nunez@email.com", MembershipType.BASIC)));
+    }
+
+    @Test
+    void migrate_ShouldGenerateNameTokensOfExistingUsers() {
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        assertEquals(List.of("ana", "garcia", "jose", "nunez"), jdbcTemplate.queryForList(
+                "SELECT token FROM user_name_tokens ORDER BY token", String.class));
+    }
+
+    @Test
+    void existingUsers_ShouldBeSearchableByName() {
+        UserService userService = context.getBean(UserService.class);
+
+        assertEquals(List.of("jose.nunez@email.com"), userService.findByName("nunez", 0, 10).stream()
+                .map(UserSummary::email)
+                .toList());
+    }
+}
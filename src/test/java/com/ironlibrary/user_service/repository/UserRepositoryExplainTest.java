@@ -0,0 +1,189 @@
+package com.ironlibrary.user_service.repository;
+
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba con EXPLAIN de H2 que las consultas de UserRepository usan los
+ * índices creados por las migraciones y no recorren la tabla completa.
+ * Quedan fuera las lecturas de toda la tabla (findAll, findSummariesByOrderByIdAsc,
+ * streamAllForExport y countByMembershipTypeAndStatus) y la búsqueda por tokens:
+ * H2 planifica LIKE :patron sin conocer el valor y no usa índices, mientras que MySQL
+ * convierte cada prefijo en un rango de idx_user_name_tokens_token.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class UserRepositoryExplainTest {
+
+    @TestConfiguration
+    static class StatementCaptureConfig {
+        @Bean
+        public CapturingStatementInspector capturingStatementInspector() {
+            return new CapturingStatementInspector();
+        }
+
+        @Bean
+        public HibernatePropertiesCustomizer statementCaptureCustomizer(CapturingStatementInspector inspector) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, inspector);
+        }
+    }
+
+    /**
+     * Guarda el SQL que Hibernate envía a la base de datos
+     */
+    static class CapturingStatementInspector implements StatementInspector {
+
+        private final List<String> statements = new ArrayList<>();
+
+        @Override
+        public synchronized String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        synchronized List<String> drain() {
+            List<String> captured = List.copyOf(statements);
+            statements.clear();
+            return captured;
+        }
+    }
+
+    /**
+     * En el plan de H2 cada tabla lleva un comentario con el índice usado y sus
+     * condiciones; sin condiciones (o con tableScan) el índice se recorre entero
+     */
+    private static final Pattern FULL_SCAN = Pattern.compile("/\\* PUBLIC\\.[\\w.]+ \\*/");
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private CapturingStatementInspector inspector;
+
+    private final LocalDate today = LocalDate.now();
+    private User first;
+
+    @BeforeEach
+    void seed() {
+        MembershipType[] types = MembershipType.values();
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            User user = new User("Usuario " + i, "usuario" + i + "@email.com", types[i % types.length]);
+            user.setIsActive(i % 4 != 0);
+            user.setRegistrationDate(today.minusDays(i % 100));
+            users.add(user);
+        }
+        first = userRepository.saveAll(users).get(0);
+        entityManager.flush();
+    }
+
+    @Test
+    void keyLookups_ShouldUsePrimaryOrUniqueKey() {
+        assertNoTableScan(() -> userRepository.findById(first.getId()));
+        assertNoTableScan(() -> userRepository.findSummaryById(first.getId()));
+        assertNoTableScan(() -> userRepository.findByEmail("usuario7@email.com"));
+        assertNoTableScan(() -> userRepository.existsByEmail("usuario7@email.com"));
+        assertNoTableScan(() -> userRepository.findExistingEmails(List.of("usuario7@email.com", "nadie@email.com")));
+        assertNoTableScan(() -> userRepository.findSummariesByIdIn(List.of(first.getId(), first.getId() + 1)));
+    }
+
+    @Test
+    void statusQueries_ShouldUseActiveIndex() {
+        assertUsesIndex("IDX_USERS_ACTIVE_ID", () -> userRepository.findByIsActiveTrue());
+        assertUsesIndex("IDX_USERS_ACTIVE_ID", () -> userRepository.findByIsActiveFalse());
+        assertUsesIndex("IDX_USERS_ACTIVE_ID", () -> userRepository.countActiveUsers());
+        assertUsesIndex("IDX_USERS_ACTIVE_ID", () -> userRepository.findSummariesByIsActiveTrueOrderByIdAsc());
+        assertUsesIndex("IDX_USERS_ACTIVE_ID", () -> userRepository.findSummariesByIsActiveFalseOrderByIdAsc());
+        assertUsesIndex("IDX_USERS_ACTIVE_ID",
+                () -> userRepository.findSummariesByIsActiveTrueAndIdGreaterThanOrderByIdAsc(first.getId(), Limit.of(20)));
+        assertUsesIndex("IDX_USERS_ACTIVE_ID",
+                () -> userRepository.findSummariesByIsActiveFalseAndIdGreaterThanOrderByIdAsc(first.getId(), Limit.of(20)));
+        assertUsesIndex("IDX_USERS_ACTIVE_ID", () -> userRepository.findUsersWhoCanBorrow());
+        assertUsesIndex("IDX_USERS_ACTIVE_ID", () -> userRepository.findSummaries(
+                UserSpecifications.canBorrow(), null, Limit.unlimited()));
+        assertUsesIndex("IDX_USERS_ACTIVE_ID", () -> userRepository.findSummaries(
+                UserSpecifications.canBorrow(), first.getId(), Limit.of(20)));
+        assertUsesIndex("IDX_USERS_ACTIVE_ID", () -> userRepository.findFields(
+                UserSpecifications.isActive(true), List.of("id", "name"), first.getId(), Limit.of(20)));
+    }
+
+    @Test
+    void membershipQueries_ShouldUseMembershipIndex() {
+        assertUsesIndex("IDX_USERS_MEMBERSHIP_ID", () -> userRepository.findByMembershipType(MembershipType.PREMIUM));
+        assertNoTableScan(() -> userRepository.findByMembershipTypeAndIsActive(MembershipType.PREMIUM, true));
+        assertUsesIndex("IDX_USERS_MEMBERSHIP_ID", () -> userRepository.countByMembershipType(MembershipType.PREMIUM));
+        assertUsesIndex("IDX_USERS_MEMBERSHIP_ID",
+                () -> userRepository.findSummariesByMembershipTypeOrderByIdAsc(MembershipType.PREMIUM));
+        assertUsesIndex("IDX_USERS_MEMBERSHIP_ID", () -> userRepository
+                .findSummariesByMembershipTypeAndIdGreaterThanOrderByIdAsc(MembershipType.PREMIUM, first.getId(), Limit.of(20)));
+    }
+
+    @Test
+    void registrationDateQueries_ShouldUseRegistrationDateIndex() {
+        assertUsesIndex("IDX_USERS_REGISTRATION_DATE",
+                () -> userRepository.findByRegistrationDateBetween(today.minusDays(7), today));
+        assertUsesIndex("IDX_USERS_REGISTRATION_DATE", () -> userRepository.findUsersRegisteredToday());
+    }
+
+    @Test
+    void cursorQueries_ShouldNotScanTables() {
+        assertNoTableScan(() -> userRepository.findSummariesByIdGreaterThanOrderByIdAsc(first.getId(), Limit.of(20)));
+    }
+
+    private void assertUsesIndex(String index, Runnable query) {
+        for (String plan : explain(query)) {
+            assertFalse(FULL_SCAN.matcher(plan).find(), () -> "La consulta recorre la tabla completa:\n" + plan);
+            assertTrue(plan.contains("PUBLIC." + index + ":"), () -> "La consulta no usa " + index + ":\n" + plan);
+        }
+    }
+
+    private void assertNoTableScan(Runnable query) {
+        for (String plan : explain(query)) {
+            assertFalse(FULL_SCAN.matcher(plan).find(), () -> "La consulta recorre la tabla completa:\n" + plan);
+        }
+    }
+
+    /**
+     * Ejecutar la consulta y devolver el plan de cada SELECT que ha generado
+     */
+    private List<String> explain(Runnable query) {
+        entityManager.clear();
+        inspector.drain();
+        query.run();
+        List<String> selects = inspector.drain().stream()
+                .filter(sql -> sql.stripLeading().toLowerCase(Locale.ROOT).startsWith("select"))
+                .toList();
+        assertFalse(selects.isEmpty(), "La consulta no ha generado ningún SELECT");
+        return selects.stream()
+                .map(sql -> jdbcTemplate.query(connection -> connection.prepareStatement("EXPLAIN " + sql),
+                        rs -> rs.next() ? rs.getString(1) : ""))
+                .toList();
+    }
+}
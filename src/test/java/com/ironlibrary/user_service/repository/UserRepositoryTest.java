@@ -0,0 +1,271 @@
+package com.ironlibrary.user_service.repository;
+
+import com.ironlibrary.user_service.dto.UserSummary;
+import com.ironlibrary.user_service.exception.ConstraintViolations;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import jakarta.persistence.EntityManager;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests de integración para UserRepository sobre H2
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private User juan;
+    private User ana;
+    private User luis;
+
+    @BeforeEach
+    void setUp() {
+        juan = userRepository.save(new User("Juan Pérez", "juan.perez@email.com", MembershipType.PREMIUM));
+        ana = userRepository.save(new User("Ana García", "ana.garcia@email.com", MembershipType.BASIC));
+        luis = new User("Luis Gómez", "luis.gomez@email.com", MembershipType.PREMIUM);
+        luis.setIsActive(false);
+        luis = userRepository.save(luis);
+    }
+
+    @Test
+    void findByIdGreaterThan_ShouldReturnKeysetPageInIdOrder() {
+        // When
+        List<UserSummary> firstPage = userRepository.findSummariesByIdGreaterThanOrderByIdAsc(0L, Limit.of(2));
+        List<UserSummary> secondPage = userRepository.findSummariesByIdGreaterThanOrderByIdAsc(
+                firstPage.get(firstPage.size() - 1).id(), Limit.of(2));
+
+        // Then
+        assertEquals(List.of(juan.getId(), ana.getId()), firstPage.stream().map(UserSummary::id).toList());
+        assertEquals(List.of(luis.getId()), secondPage.stream().map(UserSummary::id).toList());
+    }
+
+    @Test
+    void findByMembershipTypeAfterCursor_ShouldFilterByMembership() {
+        // When
+        List<UserSummary> result = userRepository.findSummariesByMembershipTypeAndIdGreaterThanOrderByIdAsc(
+                MembershipType.PREMIUM, juan.getId(), Limit.of(10));
+
+        // Then
+        assertEquals(List.of(luis.getId()), result.stream().map(UserSummary::id).toList());
+    }
+
+    @Test
+    void findSummaries_ShouldSkipUsersWhoCannotBorrow() {
+        // When
+        List<UserSummary> result = userRepository.findSummaries(UserSpecifications.canBorrow(), 0L, Limit.of(10));
+
+        // Then
+        assertEquals(List.of(juan.getId(), ana.getId()), result.stream().map(UserSummary::id).toList());
+    }
+
+    @Test
+    void canBorrowSpecification_ShouldMatchUserCanBorrowBooks() {
+        // When
+        List<Long> byQuery = userRepository.findSummaries(UserSpecifications.canBorrow(), null, Limit.unlimited())
+                .stream().map(UserSummary::id).toList();
+        List<Long> inMemory = userRepository.findAll().stream()
+                .filter(User::canBorrowBooks).map(User::getId).sorted().toList();
+
+        // Then
+        assertEquals(inMemory, byQuery);
+    }
+
+    @Test
+    void findSummariesByIdIn_ShouldSelectOnlySummaryColumns() {
+        // When
+        List<UserSummary> result = userRepository.findSummariesByIdIn(List.of(luis.getId()));
+
+        // Then
+        assertEquals(List.of(new UserSummary(luis.getId(), "Luis Gómez", "luis.gomez@email.com",
+                MembershipType.PREMIUM, false)), result);
+    }
+
+    @Test
+    void findSummariesByIsActiveTrue_ShouldNotLoadManagedEntities() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<UserSummary> result = userRepository.findSummariesByIsActiveTrueOrderByIdAsc();
+
+        // Then
+        assertEquals(List.of(juan.getId(), ana.getId()), result.stream().map(UserSummary::id).toList());
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void countByMembershipTypeAndStatus_ShouldGroupInOneQuery() {
+        // When
+        List<MembershipStatusCount> counts = userRepository.countByMembershipTypeAndStatus();
+
+        // Then
+        assertEquals(3, counts.size());
+        MembershipStatusCount inactivePremium = counts.stream()
+                .filter(c -> c.getMembershipType() == MembershipType.PREMIUM && !c.getIsActive())
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1L, inactivePremium.getTotal());
+    }
+
+    @Test
+    void saveAndFlush_ShouldViolateNamedEmailConstraint_WhenEmailIsDuplicated() {
+        // Given
+        User duplicate = new User("Otro Juan", "juan.perez@email.com", MembershipType.BASIC);
+
+        // When
+        DataIntegrityViolationException ex = assertThrows(DataIntegrityViolationException.class,
+                () -> userRepository.saveAndFlush(duplicate));
+
+        // Then
+        assertTrue(ConstraintViolations.isDuplicateEmail(ex));
+    }
+
+    @Test
+    void searchIdsByNameTokens_ShouldMatchPrefixesIgnoringAccentsAndCase() {
+        // When
+        List<Long> result = userRepository.searchIdsByNameTokens(List.of("gom"), 0, 10);
+
+        // Then
+        assertEquals(List.of(luis.getId()), result);
+    }
+
+    @Test
+    void searchIdsByNameTokens_ShouldRequireEveryToken() {
+        // When
+        List<Long> result = userRepository.searchIdsByNameTokens(List.of("juan", "garcia"), 0, 10);
+
+        // Then
+        assertTrue(result.isEmpty());
+    }
+
+    @Test
+    void searchIdsByNameTokens_ShouldRankExactMatchesFirstAndPaginate() {
+        // Given
+        User juana = userRepository.save(new User("Juana Ruiz", "juana.ruiz@email.com", MembershipType.BASIC));
+        User juan2 = userRepository.save(new User("Juan Ruiz", "juan.ruiz@email.com", MembershipType.BASIC));
+        userRepository.flush();
+
+        // When
+        List<Long> firstPage = userRepository.searchIdsByNameTokens(List.of("juan", "ruiz"), 0, 1);
+        List<Long> secondPage = userRepository.searchIdsByNameTokens(List.of("juan", "ruiz"), 1, 1);
+
+        // Then
+        assertEquals(List.of(juan2.getId()), firstPage);
+        assertEquals(List.of(juana.getId()), secondPage);
+    }
+
+    @Test
+    void toggleActive_ShouldFlipStatusInPlace() {
+        // When
+        int updated = userRepository.toggleActive(luis.getId(), null);
+
+        // Then
+        assertEquals(1, updated);
+        assertTrue(userRepository.findById(luis.getId()).orElseThrow().getIsActive());
+        assertEquals(0, userRepository.toggleActive(-1L, null));
+    }
+
+    @Test
+    void changeMembershipType_ShouldOnlyUpdateToAnotherTypeWithExpectedVersion() {
+        // Given
+        long version = ana.getVersion();
+
+        // When
+        int sameType = userRepository.changeMembershipType(ana.getId(), MembershipType.BASIC, null);
+        int stale = userRepository.changeMembershipType(ana.getId(), MembershipType.STUDENT, version + 1);
+        int updated = userRepository.changeMembershipType(ana.getId(), MembershipType.STUDENT, version);
+
+        // Then
+        assertEquals(0, sameType);
+        assertEquals(0, stale);
+        assertEquals(1, updated);
+        User reloaded = userRepository.findById(ana.getId()).orElseThrow();
+        assertEquals(MembershipType.STUDENT, reloaded.getMembershipType());
+        assertEquals(version + 1, reloaded.getVersion());
+    }
+
+    @Test
+    void toggleActive_ShouldBumpVersionAndHonorExpectedVersion() {
+        // Given
+        long version = luis.getVersion();
+
+        // When
+        int stale = userRepository.toggleActive(luis.getId(), version + 1);
+        int updated = userRepository.toggleActive(luis.getId(), version);
+
+        // Then
+        assertEquals(0, stale);
+        assertEquals(1, updated);
+        assertEquals(version + 1, userRepository.findById(luis.getId()).orElseThrow().getVersion());
+    }
+
+    @Test
+    void findSummaryById_ShouldReturnProjectionWithoutManagedEntity() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        UserSummary summary = userRepository.findSummaryById(luis.getId()).orElseThrow();
+
+        // Then
+        assertEquals(new UserSummary(luis.getId(), "Luis Gómez", "luis.gomez@email.com", MembershipType.PREMIUM, false), summary);
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+        assertTrue(userRepository.findSummaryById(-1L).isEmpty());
+    }
+
+    @Test
+    void findFields_ShouldSelectOnlyRequestedColumnsInOrder() {
+        // Given
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Map<String, Object>> rows = userRepository.findFields(
+                UserSpecifications.isActive(true), List.of("id", "email"), null, Limit.unlimited());
+
+        // Then
+        assertEquals(List.of(
+                Map.of("id", juan.getId(), "email", "juan.perez@email.com"),
+                Map.of("id", ana.getId(), "email", "ana.garcia@email.com")), rows);
+        assertEquals(List.of("id", "email"), List.copyOf(rows.get(0).keySet()));
+        assertEquals(0, entityManager.unwrap(Session.class).getStatistics().getEntityCount());
+    }
+
+    @Test
+    void findFields_ShouldApplyFilterCursorAndLimit() {
+        // When
+        List<Map<String, Object>> rows = userRepository.findFields(
+                UserSpecifications.hasMembershipType(MembershipType.PREMIUM), List.of("id", "name"),
+                juan.getId(), Limit.of(1));
+
+        // Then
+        assertEquals(List.of(Map.of("id", luis.getId(), "name", "Luis Gómez")), rows);
+    }
+
+    @Test
+    void findFields_ShouldRejectUnknownFields() {
+        assertThrows(InvalidDataAccessApiUsageException.class, () -> userRepository.findFields(
+                UserSpecifications.all(), List.of("id", "nameTokens"), null, Limit.unlimited()));
+    }
+}
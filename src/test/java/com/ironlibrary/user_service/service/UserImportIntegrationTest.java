@@ -0,0 +1,153 @@
+package com.ironlibrary.user_service.service;
+
+import com.ironlibrary.user_service.dto.ImportReport;
+import com.ironlibrary.user_service.dto.ImportStatus;
+import com.ironlibrary.user_service.exception.UserNotFoundException;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.reset;
+
+/**
+ * Test de integración de la importación masiva sobre H2
+ */
+@SpringBootTest(properties = "user-service.import.batch-size=3")
+@ActiveProfiles("test")
+class UserImportIntegrationTest {
+
+    @Autowired
+    private UserImportService userImportService;
+
+    @MockitoSpyBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserService userService;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userRepository.save(new User("Juan Pérez", "juan.perez@email.com", MembershipType.PREMIUM));
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(userRepository);
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void importUsers_ShouldInsertInBatchesAndReportEveryRow() {
+        // Given
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            users.add(new User("Usuario " + i, "usuario" + i + "@email.com", MembershipType.STUDENT));
+        }
+        users.add(new User("Repetido", "USUARIO0@email.com", MembershipType.BASIC));
+        users.add(new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC));
+        users.add(new User("Sin membresía", "sin.membresia@email.com", null));
+
+        // When
+        ImportReport report = userImportService.importUsers(users);
+
+        // Then
+        assertEquals(10, report.getTotal());
+        assertEquals(7, report.getCreated());
+        assertEquals(3, report.getSkipped());
+        assertEquals(ImportStatus.CREATED, report.getRows().get(0).getStatus());
+        assertEquals(ImportStatus.DUPLICATE_IN_FILE, report.getRows().get(7).getStatus());
+        assertEquals(ImportStatus.EMAIL_ALREADY_EXISTS, report.getRows().get(8).getStatus());
+        assertEquals(ImportStatus.INVALID, report.getRows().get(9).getStatus());
+
+        Long id = report.getRows().get(6).getId();
+        User stored = userRepository.findById(id).orElseThrow();
+        assertEquals("usuario6@email.com", stored.getEmail());
+        assertTrue(stored.getIsActive());
+        assertNotNull(stored.getRegistrationDate());
+        assertEquals(8, userRepository.count());
+    }
+
+    @Test
+    void importUsers_ShouldReportEmailInsertedConcurrently_WithoutRollingBackTheImport() {
+        // Given: el email de Juan se inserta después de comprobar los existentes
+        doReturn(List.of()).when(userRepository).findExistingEmails(any());
+        List<User> users = List.of(
+                new User("Ana López", "ana.lopez@email.com", MembershipType.STUDENT),
+                new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC),
+                new User("Luis Gómez", "luis.gomez@email.com", MembershipType.STUDENT),
+                new User("Marta Ruiz", "marta.ruiz@email.com", MembershipType.BASIC));
+
+        // When
+        ImportReport report = userImportService.importUsers(users);
+
+        // Then
+        assertEquals(3, report.getCreated());
+        assertEquals(1, report.getSkipped());
+        assertEquals(List.of(ImportStatus.CREATED, ImportStatus.EMAIL_ALREADY_EXISTS,
+                        ImportStatus.CREATED, ImportStatus.CREATED),
+                report.getRows().stream().map(row -> row.getStatus()).toList());
+        assertNull(report.getRows().get(1).getId());
+        assertEquals(4, userRepository.count());
+        assertEquals(MembershipType.PREMIUM,
+                userRepository.findByEmail("juan.perez@email.com").orElseThrow().getMembershipType());
+        Long luisId = report.getRows().get(2).getId();
+        assertEquals(List.of(luisId), userRepository.searchIdsByNameTokens(List.of("luis"), 0, 10));
+    }
+
+    @Test
+    void importUsers_ShouldForgetEmailsPreviouslyReportedAsMissing() {
+        // Given
+        assertThrows(UserNotFoundException.class, () -> userService.findUserByEmail("sondeado@email.com"));
+
+        // When
+        userImportService.importUsers(List.of(new User("Sondeado", "sondeado@email.com", MembershipType.BASIC)));
+
+        // Then
+        assertEquals("Sondeado", userService.findUserByEmail("sondeado@email.com").getName());
+    }
+
+    @Test
+    void importCsv_ShouldParseQuotedFieldsAndDefaults() {
+        // Given
+        String csv = """
+                name,email,membership_type,is_active,phone,address
+                "García, Ana",ana.garcia@email.com,student,false,600111222,"Calle ""Mayor"" 1"
+                Luis Gómez,luis.gomez@email.com,GOLD,,,
+                """;
+
+        // When
+        ImportReport report = userImportService.importCsv(csv);
+
+        // Then
+        assertEquals(2, report.getTotal());
+        assertEquals(1, report.getCreated());
+        assertEquals(ImportStatus.INVALID, report.getRows().get(1).getStatus());
+
+        User ana = userRepository.findByEmail("ana.garcia@email.com").orElseThrow();
+        assertEquals("García, Ana", ana.getName());
+        assertEquals(MembershipType.STUDENT, ana.getMembershipType());
+        assertFalse(ana.getIsActive());
+        assertEquals("Calle \"Mayor\" 1", ana.getAddress());
+        assertEquals(List.of(ana.getId()), userRepository.searchIdsByNameTokens(List.of("garcia"), 0, 10));
+    }
+
+    @Test
+    void importCsv_ShouldRejectMissingRequiredColumn() {
+        assertThrows(IllegalArgumentException.class,
+                () -> userImportService.importCsv("name,email\nAna,ana@email.com\n"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.ironlibrary.user_service.service;
+
+import com.ironlibrary.user_service.cache.UserCache;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * Comprueba que las búsquedas agrupadas del mismo usuario esperan sin
+ * retener conexiones: mientras la única carga está en curso, el pool
+ * solo tiene activa la conexión de esa carga.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceCoalescingTest {
+
+    private static final int CALLERS = 20;
+
+    @Autowired
+    private UserService userService;
+
+    @MockitoSpyBean
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        reset(userRepository);
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void findUserById_ShouldCoalesceWithoutHoldingConnectionsWhileWaiting() throws Exception {
+        // Given
+        User user = userService.saveUser(new User("Juan Pérez", "juan.perez@email.com", MembershipType.PREMIUM));
+        userCache.clear();
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            loading.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            return Optional.of(user);
+        }).when(userRepository).findById(any());
+        double coalescedBefore = coalesced();
+
+        // When
+        List<Future<User>> results = new ArrayList<>();
+        double activeWhileWaiting;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < CALLERS; i++) {
+                results.add(executor.submit(() -> userService.findUserById(user.getId())));
+            }
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            for (int i = 0; i < 500 && coalesced() - coalescedBefore < CALLERS - 1; i++) {
+                Thread.sleep(10);
+            }
+            activeWhileWaiting = meterRegistry.get("hikaricp.connections.active").gauge().value();
+            release.countDown();
+        }
+
+        // Then
+        for (Future<User> result : results) {
+            assertEquals(user.getId(), result.get().getId());
+        }
+        assertEquals(CALLERS - 1, coalesced() - coalescedBefore);
+        assertEquals(1.0, activeWhileWaiting);
+        verify(userRepository, times(1)).findById(user.getId());
+    }
+
+    private double coalesced() {
+        return meterRegistry.get("users.cache.coalesced").tag("key", "id").counter().count();
+    }
+}
@@ -0,0 +1,89 @@
+package com.ironlibrary.user_service.service;
+
+import com.ironlibrary.user_service.cache.UserCache;
+import com.ironlibrary.user_service.exception.UserNotFoundException;
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.UserRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Comprueba con las métricas de Hikari que las búsquedas servidas desde la
+ * caché no toman conexiones del pool: solo la carga de un fallo lo hace.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class UserServiceConnectionUsageTest {
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserCache userCache;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        userRepository.deleteAll();
+        userCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void cacheHits_ShouldNotAcquireConnections() {
+        // Given
+        User user = userService.saveUser(new User("Juan Pérez", "juan.perez@email.com", MembershipType.PREMIUM));
+        long beforeLoads = acquiredConnections();
+        userService.findUserById(user.getId());
+        userService.findUserByEmail("juan.perez@email.com");
+        userService.getLoanEligibility(user.getId());
+        assertTrue(acquiredConnections() > beforeLoads);
+
+        // When
+        long beforeHits = acquiredConnections();
+        for (int i = 0; i < 10; i++) {
+            userService.findUserById(user.getId());
+            userService.findUserByEmail("juan.perez@email.com");
+            userService.validateUser(user.getId());
+            userService.getLoanEligibility(user.getId());
+        }
+
+        // Then
+        assertEquals(beforeHits, acquiredConnections());
+    }
+
+    @Test
+    void negativeCacheHits_ShouldNotAcquireConnections() {
+        // Given
+        assertThrows(UserNotFoundException.class, () -> userService.findUserById(999L));
+
+        // When
+        long before = acquiredConnections();
+        assertThrows(UserNotFoundException.class, () -> userService.findUserById(999L));
+        assertThrows(UserNotFoundException.class, () -> userService.getLoanEligibility(999L));
+
+        // Then
+        assertEquals(before, acquiredConnections());
+    }
+
+    private long acquiredConnections() {
+        return meterRegistry.get("hikaricp.connections.acquire").timer().count();
+    }
+}
@@ -1,24 +1,52 @@
 package com.ironlibrary.user_service.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ironlibrary.user_service.cache.LoopbackUserCacheTransport;
+import com.ironlibrary.user_service.cache.UserCache;
+import com.ironlibrary.user_service.cache.UserCacheInvalidationBus;
+import com.ironlibrary.user_service.dto.BatchValidationResponse;
+import com.ironlibrary.user_service.dto.CursorPage;
+import com.ironlibrary.user_service.dto.UserSummary;
+import com.ironlibrary.user_service.dto.UserValidation;
+import com.ironlibrary.user_service.events.UserChangeType;
+import com.ironlibrary.user_service.events.UserOutbox;
 import com.ironlibrary.user_service.exception.EmailAlreadyExistsException;
+import com.ironlibrary.user_service.exception.PreconditionFailedException;
 import com.ironlibrary.user_service.exception.UserNotFoundException;
+import com.ironlibrary.user_service.logging.UserAuditLogger;
 import com.ironlibrary.user_service.model.MembershipType;
 import com.ironlibrary.user_service.model.User;
 import com.ironlibrary.user_service.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
 
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
 /**
@@ -30,6 +58,29 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private UserStatsCounters userStatsCounters;
+
+    @Mock
+    private UserAuditLogger userAuditLogger;
+
+    @Mock
+    private UserOutbox userOutbox;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(5), Duration.ofSeconds(10),
+            Duration.ofMinutes(1), 100, Duration.ofSeconds(5), new SimpleMeterRegistry());
+
+    @Spy
+    private UserCacheInvalidationBus userCacheInvalidationBus =
+            new UserCacheInvalidationBus(userCache, new LoopbackUserCacheTransport(), new SimpleMeterRegistry());
+
     @InjectMocks
     private UserService userService;
 
@@ -46,22 +97,24 @@ class UserServiceTest {
         testUser.setRegistrationDate(LocalDate.now());
         testUser.setPhone("123456789");
         testUser.setAddress("Calle Principal 123");
+        testUser.setVersion(0L);
     }
 
     @Test
     void findAllUsers_ShouldReturnAllUsers() {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userRepository.findAll()).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userRepository.findSummariesByOrderByIdAsc()).thenReturn(users);
 
         // When
-        List<User> result = userService.findAllUsers();
+        List<UserSummary> result = userService.findAllUsers();
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        assertEquals(testUser.getName(), result.get(0).getName());
-        verify(userRepository).findAll();
+        assertEquals(testUser.getName(), result.get(0).name());
+        verify(userRepository).findSummariesByOrderByIdAsc();
+        verify(userRepository, never()).findAll();
     }
 
     @Test
@@ -91,9 +144,197 @@ class UserServiceTest {
         );
 
         assertEquals("Usuario no encontrado con ID: 1", exception.getMessage());
+        assertEquals(0, exception.getStackTrace().length);
         verify(userRepository).findById(1L);
     }
 
+    @Test
+    void findUserById_ShouldNotQueryAgain_WhenUserRecentlyMissing() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+
+        // When
+        assertThrows(UserNotFoundException.class, () -> userService.findUserById(1L));
+        assertThrows(UserNotFoundException.class, () -> userService.findUserById(1L));
+
+        // Then
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void saveUser_ShouldForgetMissingId_WhenUserCreated() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.empty(), Optional.of(testUser));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
+        assertThrows(UserNotFoundException.class, () -> userService.findUserById(1L));
+
+        // When
+        userService.saveUser(testUser);
+
+        // Then
+        assertEquals(testUser, userService.findUserById(1L));
+    }
+
+    @Test
+    void findUserById_ShouldServeRepeatedLookupsFromCache() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When
+        userService.findUserById(1L);
+        User result = userService.findUserById(1L);
+
+        // Then
+        assertEquals(testUser.getId(), result.getId());
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void findUserByEmail_ShouldReuseEntryCachedById() {
+        // Given
+        when(userRepository.findByEmail("juan.perez@email.com")).thenReturn(Optional.of(testUser));
+
+        // When
+        userService.findUserByEmail("juan.perez@email.com");
+        User result = userService.findUserByEmail("Juan.Perez@email.com");
+
+        // Then
+        assertEquals(testUser.getEmail(), result.getEmail());
+        verify(userRepository, times(1)).findByEmail(anyString());
+    }
+
+    @Test
+    void updateUser_ShouldEvictOldAndNewEmailFromCache() {
+        // Given
+        User updatedData = new User();
+        updatedData.setName("Juan Pérez");
+        updatedData.setEmail("juan.nuevo@email.com");
+        updatedData.setMembershipType(MembershipType.PREMIUM);
+        updatedData.setIsActive(true);
+
+        when(userRepository.findByEmail("juan.perez@email.com")).thenReturn(Optional.of(testUser));
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
+        userService.findUserByEmail("juan.perez@email.com");
+
+        // When
+        userService.updateUser(1L, updatedData, null);
+
+        // Then
+        verify(userCacheInvalidationBus).invalidate(testUser, "juan.perez@email.com");
+        when(userRepository.findByEmail("juan.perez@email.com")).thenReturn(Optional.empty());
+        assertThrows(UserNotFoundException.class, () -> userService.findUserByEmail("juan.perez@email.com"));
+    }
+
+    @Test
+    void patchUser_ShouldOnlyChangeSuppliedFields() throws Exception {
+        // Given
+        JsonNode patch = new ObjectMapper().readTree("{\"membershipType\":\"student\",\"phone\":null}");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.saveAndFlush(testUser)).thenReturn(testUser);
+
+        // When
+        User result = userService.patchUser(1L, patch, null);
+
+        // Then
+        assertEquals(MembershipType.STUDENT, result.getMembershipType());
+        assertNull(result.getPhone());
+        assertEquals("Juan Pérez", result.getName());
+        assertEquals("Calle Principal 123", result.getAddress());
+        verify(userCacheInvalidationBus).invalidate(testUser, "juan.perez@email.com");
+        verify(userStatsCounters).recordChanged(
+                new UserStatsCounters.State(MembershipType.PREMIUM, true),
+                new UserStatsCounters.State(MembershipType.STUDENT, true));
+    }
+
+    @Test
+    void patchUser_ShouldSkipWrite_WhenNothingChanges() throws Exception {
+        // Given
+        JsonNode patch = new ObjectMapper().readTree("{\"name\":\"Juan Pérez\",\"isActive\":true}");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When
+        User result = userService.patchUser(1L, patch, null);
+
+        // Then
+        assertSame(testUser, result);
+        verify(userRepository, never()).saveAndFlush(any());
+        verify(userCacheInvalidationBus, never()).invalidate(any(User.class), any(String[].class));
+        verifyNoInteractions(userStatsCounters, userOutbox);
+    }
+
+    @Test
+    void patchUser_ShouldRejectNonPatchableOrNullRequiredFields() throws Exception {
+        // Given
+        ObjectMapper mapper = new ObjectMapper();
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.patchUser(1L, mapper.readTree("{\"id\":5}"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.patchUser(1L, mapper.readTree("{\"email\":null}"), null));
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.patchUser(1L, mapper.readTree("[]"), null));
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void updateUser_ShouldRejectStaleIfMatchVersion() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class, () -> userService.updateUser(1L, new User(), 3L));
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void toggleUserStatus_ShouldRejectStaleIfMatchVersion() {
+        // Given
+        when(userRepository.toggleActive(1L, 3L)).thenReturn(0);
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class, () -> userService.toggleUserStatus(1L, 3L));
+        verifyNoInteractions(userStatsCounters);
+    }
+
+    @Test
+    void updateMembershipType_ShouldRejectStaleIfMatchVersion() {
+        // Given
+        when(userRepository.findSummaryById(1L)).thenReturn(Optional.of(summary(MembershipType.PREMIUM)));
+        when(userRepository.changeMembershipType(1L, MembershipType.BASIC, 3L)).thenReturn(0);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When & Then
+        assertThrows(PreconditionFailedException.class,
+                () -> userService.updateMembershipType(1L, MembershipType.BASIC, 3L));
+        verify(userRepository).changeMembershipType(1L, MembershipType.BASIC, 3L);
+        verifyNoInteractions(userStatsCounters, userOutbox);
+    }
+
+    @Test
+    void toggleUserStatus_ShouldEvictCachedUser() {
+        // Given
+        User toggled = new User("Juan Pérez", "juan.perez@email.com", MembershipType.PREMIUM);
+        toggled.setId(1L);
+        toggled.setIsActive(false);
+        toggled.setVersion(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser), Optional.of(toggled));
+        when(userRepository.toggleActive(1L, null)).thenReturn(1);
+        userService.findUserById(1L);
+
+        // When
+        userService.toggleUserStatus(1L, null);
+        User result = userService.findUserById(1L);
+
+        // Then
+        verify(userCacheInvalidationBus).invalidate(toggled);
+        verify(userRepository, times(3)).findById(1L);
+        assertFalse(result.getIsActive());
+    }
+
     @Test
     void findUserByEmail_ShouldReturnUser_WhenUserExists() {
         // Given
@@ -126,8 +367,7 @@ class UserServiceTest {
     @Test
     void saveUser_ShouldReturnSavedUser_WhenValidUser() {
         // Given
-        when(userRepository.existsByEmail(testUser.getEmail())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         // When
         User result = userService.saveUser(testUser);
@@ -135,14 +375,16 @@ class UserServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(testUser.getName(), result.getName());
-        verify(userRepository).existsByEmail(testUser.getEmail());
-        verify(userRepository).save(testUser);
+        verify(userRepository).saveAndFlush(testUser);
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userAuditLogger).created(testUser);
+        verify(userOutbox).record(UserChangeType.CREATED, testUser);
     }
 
     @Test
     void saveUser_ShouldThrowException_WhenEmailExists() {
         // Given
-        when(userRepository.existsByEmail(testUser.getEmail())).thenReturn(true);
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateEmailViolation());
 
         // When & Then
         EmailAlreadyExistsException exception = assertThrows(
@@ -151,8 +393,22 @@ class UserServiceTest {
         );
 
         assertTrue(exception.getMessage().contains("Ya existe un usuario con el email"));
-        verify(userRepository).existsByEmail(testUser.getEmail());
-        verify(userRepository, never()).save(any());
+        verify(userRepository, never()).existsByEmail(anyString());
+        verify(userStatsCounters, never()).recordCreated(any(User.class));
+        verify(userAuditLogger, never()).created(any(User.class));
+        verifyNoInteractions(userOutbox);
+    }
+
+    @Test
+    void saveUser_ShouldRethrowOtherIntegrityViolations() {
+        // Given
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("otro error",
+                new ConstraintViolationException("NULL not allowed", new SQLException(), "fk_otro"));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(violation);
+
+        // When & Then
+        assertSame(violation, assertThrows(DataIntegrityViolationException.class,
+                () -> userService.saveUser(testUser)));
     }
 
     @Test
@@ -160,8 +416,7 @@ class UserServiceTest {
         // Given
         testUser.setIsActive(null);
         testUser.setRegistrationDate(null);
-        when(userRepository.existsByEmail(testUser.getEmail())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         // When
         userService.saveUser(testUser);
@@ -169,7 +424,7 @@ class UserServiceTest {
         // Then
         assertTrue(testUser.getIsActive());
         assertEquals(LocalDate.now(), testUser.getRegistrationDate());
-        verify(userRepository).save(testUser);
+        verify(userRepository).saveAndFlush(testUser);
     }
 
     @Test
@@ -184,17 +439,32 @@ class UserServiceTest {
         updatedData.setAddress("Nueva Dirección 456");
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.existsByEmail(updatedData.getEmail())).thenReturn(false);
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(testUser);
 
         // When
-        User result = userService.updateUser(1L, updatedData);
+        User result = userService.updateUser(1L, updatedData, null);
 
         // Then
         assertEquals(updatedData.getName(), testUser.getName());
         assertEquals(updatedData.getEmail(), testUser.getEmail());
         assertEquals(updatedData.getMembershipType(), testUser.getMembershipType());
-        verify(userRepository).save(testUser);
+        verify(userRepository).saveAndFlush(testUser);
+        verify(userRepository, never()).existsByEmail(anyString());
+    }
+
+    @Test
+    void updateUser_ShouldThrowException_WhenNewEmailBelongsToAnotherUser() {
+        // Given
+        User updatedData = new User("Juan Pérez", "ana.garcia@email.com", MembershipType.PREMIUM);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+        when(userRepository.saveAndFlush(any(User.class))).thenThrow(duplicateEmailViolation());
+
+        // When & Then
+        EmailAlreadyExistsException exception = assertThrows(
+                EmailAlreadyExistsException.class,
+                () -> userService.updateUser(1L, updatedData, null)
+        );
+        assertTrue(exception.getMessage().contains("ana.garcia@email.com"));
     }
 
     @Test
@@ -208,65 +478,237 @@ class UserServiceTest {
         // Then
         verify(userRepository).findById(1L);
         verify(userRepository).delete(testUser);
+        verify(userCacheInvalidationBus).invalidateDeleted(testUser);
+        verify(userAuditLogger).deleted(testUser);
+        verify(userOutbox).record(UserChangeType.DELETED, testUser);
     }
 
     @Test
-    void toggleUserStatus_ShouldToggleStatus() {
+    void toggleUserStatus_ShouldUseSingleUpdateAndReturnNewState() {
         // Given
-        testUser.setIsActive(true);
+        testUser.setIsActive(false);
+        when(userRepository.toggleActive(1L, null)).thenReturn(1);
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
 
         // When
-        User result = userService.toggleUserStatus(1L);
+        User result = userService.toggleUserStatus(1L, null);
 
         // Then
-        assertFalse(testUser.getIsActive());
-        verify(userRepository).save(testUser);
+        assertFalse(result.getIsActive());
+        verify(userRepository).toggleActive(1L, null);
+        verify(userRepository, never()).save(any());
+        verify(userOutbox).record(UserChangeType.DEACTIVATED, testUser);
+    }
+
+    @Test
+    void toggleUserStatus_ShouldThrowException_WhenUserNotExists() {
+        // Given
+        when(userRepository.toggleActive(999L, null)).thenReturn(0);
+
+        // When & Then
+        assertThrows(UserNotFoundException.class, () -> userService.toggleUserStatus(999L, null));
+        verify(userRepository, never()).findById(any());
     }
 
     @Test
-    void updateMembershipType_ShouldUpdateMembership() {
+    void updateMembershipType_ShouldUpdateWithoutLoadingFirstAndReturnNewState() {
         // Given
+        User updated = new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC);
+        updated.setId(1L);
+        updated.setVersion(1L);
+        when(userRepository.findSummaryById(1L)).thenReturn(Optional.of(summary(MembershipType.PREMIUM)));
+        when(userRepository.changeMembershipType(1L, MembershipType.BASIC, null)).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(updated));
+
+        // When
+        User result = userService.updateMembershipType(1L, MembershipType.BASIC, null);
+
+        // Then
+        assertSame(updated, result);
+        InOrder inOrder = inOrder(userRepository);
+        inOrder.verify(userRepository).findSummaryById(1L);
+        inOrder.verify(userRepository).changeMembershipType(1L, MembershipType.BASIC, null);
+        inOrder.verify(userRepository).findById(1L);
+        verify(userRepository, times(1)).changeMembershipType(any(), any(), any());
+        verify(userRepository, never()).save(any());
+        verify(userCacheInvalidationBus).invalidate(updated);
+        verify(userStatsCounters).recordChanged(
+                new UserStatsCounters.State(MembershipType.PREMIUM, true),
+                new UserStatsCounters.State(MembershipType.BASIC, true));
+        verify(userAuditLogger).membershipChanged(updated, MembershipType.PREMIUM);
+        verify(userOutbox).record(UserChangeType.MEMBERSHIP_CHANGED, updated);
+    }
+
+    @Test
+    void updateMembershipType_ShouldTakePreviousTypeFromTheLockingRead() {
+        // Given
+        User updated = new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC);
+        updated.setId(1L);
+        updated.setVersion(4L);
+        when(userRepository.findSummaryById(1L)).thenReturn(Optional.of(summary(MembershipType.STUDENT)));
+        when(userRepository.changeMembershipType(1L, MembershipType.BASIC, 3L)).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(updated));
+
+        // When
+        userService.updateMembershipType(1L, MembershipType.BASIC, 3L);
+
+        // Then
+        verify(userStatsCounters).recordChanged(
+                new UserStatsCounters.State(MembershipType.STUDENT, true),
+                new UserStatsCounters.State(MembershipType.BASIC, true));
+        verify(userAuditLogger).membershipChanged(updated, MembershipType.STUDENT);
+    }
+
+    @Test
+    void updateMembershipType_ShouldSkipUpdateAndEvents_WhenMembershipIsUnchanged() {
+        // Given
+        when(userRepository.findSummaryById(1L)).thenReturn(Optional.of(summary(MembershipType.PREMIUM)));
         when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
-        when(userRepository.save(any(User.class))).thenReturn(testUser);
 
         // When
-        User result = userService.updateMembershipType(1L, MembershipType.BASIC);
+        User result = userService.updateMembershipType(1L, MembershipType.PREMIUM, null);
 
         // Then
-        assertEquals(MembershipType.BASIC, testUser.getMembershipType());
-        verify(userRepository).save(testUser);
+        assertSame(testUser, result);
+        verify(userRepository, never()).changeMembershipType(any(), any(), any());
+        verifyNoInteractions(userStatsCounters, userOutbox);
+        verify(userCacheInvalidationBus, never()).invalidate(any(User.class), any(String[].class));
+    }
+
+    @Test
+    void updateMembershipType_ShouldThrowException_WhenUserNotExists() {
+        // Given
+        when(userRepository.findSummaryById(999L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(UserNotFoundException.class,
+                () -> userService.updateMembershipType(999L, MembershipType.BASIC, null));
+        verify(userRepository, never()).changeMembershipType(any(), any(), any());
     }
 
     @Test
     void findByMembershipType_ShouldReturnUsersOfType() {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userRepository.findByMembershipType(MembershipType.PREMIUM)).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userRepository.findSummariesByMembershipTypeOrderByIdAsc(MembershipType.PREMIUM)).thenReturn(users);
 
         // When
-        List<User> result = userService.findByMembershipType(MembershipType.PREMIUM);
+        List<UserSummary> result = userService.findByMembershipType(MembershipType.PREMIUM);
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(userRepository).findByMembershipType(MembershipType.PREMIUM);
+        verify(userRepository).findSummariesByMembershipTypeOrderByIdAsc(MembershipType.PREMIUM);
     }
 
     @Test
     void findActiveUsers_ShouldReturnActiveUsers() {
         // Given
-        List<User> users = Arrays.asList(testUser);
-        when(userRepository.findByIsActiveTrue()).thenReturn(users);
+        List<UserSummary> users = List.of(UserSummary.from(testUser));
+        when(userRepository.findSummariesByIsActiveTrueOrderByIdAsc()).thenReturn(users);
 
         // When
-        List<User> result = userService.findActiveUsers();
+        List<UserSummary> result = userService.findActiveUsers();
 
         // Then
         assertNotNull(result);
         assertEquals(1, result.size());
-        verify(userRepository).findByIsActiveTrue();
+        verify(userRepository).findSummariesByIsActiveTrueOrderByIdAsc();
+    }
+
+    @Test
+    void findAllUsersPage_ShouldReturnNextCursor_WhenMoreResultsExist() {
+        // Given
+        User secondUser = new User("Ana García", "ana.garcia@email.com", MembershipType.BASIC);
+        secondUser.setId(2L);
+        User thirdUser = new User("Luis Gómez", "luis.gomez@email.com", MembershipType.STUDENT);
+        thirdUser.setId(3L);
+        when(userRepository.findSummariesByIdGreaterThanOrderByIdAsc(0L, Limit.of(3)))
+                .thenReturn(Stream.of(testUser, secondUser, thirdUser).map(UserSummary::from).toList());
+
+        // When
+        CursorPage<UserSummary> result = userService.findAllUsers(null, 2);
+
+        // Then
+        assertEquals(2, result.getItems().size());
+        assertEquals(2L, result.getNextCursor());
+        verify(userRepository).findSummariesByIdGreaterThanOrderByIdAsc(0L, Limit.of(3));
+    }
+
+    @Test
+    void findActiveUsersPage_ShouldReturnNullCursor_OnLastPage() {
+        // Given
+        when(userRepository.findSummariesByIsActiveTrueAndIdGreaterThanOrderByIdAsc(5L, Limit.of(11)))
+                .thenReturn(List.of(UserSummary.from(testUser)));
+
+        // When
+        CursorPage<UserSummary> result = userService.findActiveUsers(5L, 10);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertNull(result.getNextCursor());
+    }
+
+    @Test
+    void findAllUsersPage_ShouldRejectInvalidLimit() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userService.findAllUsers(null, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.findAllUsers(null, UserService.MAX_PAGE_SIZE + 1));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void findUserFieldsPage_ShouldAlwaysSelectIdAndUseItAsCursor() {
+        // Given
+        when(userRepository.findFields(any(), eq(List.of("id", "name", "email")), eq(0L), eq(Limit.of(2))))
+                .thenReturn(List.of(
+                        Map.of("id", 1L, "name", "Juan Pérez", "email", "juan.perez@email.com"),
+                        Map.of("id", 2L, "name", "Ana García", "email", "ana.garcia@email.com")));
+
+        // When
+        CursorPage<Map<String, Object>> result = userService.findUserFields(UserFilter.all(), " name, email,id ", null, 1);
+
+        // Then
+        assertEquals(1, result.getItems().size());
+        assertEquals(1L, result.getNextCursor());
+    }
+
+    @Test
+    void findUserFieldsById_ShouldThrowException_WhenUserNotExists() {
+        // Given
+        when(userRepository.findFields(any(), eq(List.of("id", "name")), isNull(), eq(Limit.of(1))))
+                .thenReturn(List.of());
+
+        // When & Then
+        assertThrows(UserNotFoundException.class, () -> userService.findUserFieldsById(99L, "name"));
+    }
+
+    @Test
+    void findUserFields_ShouldRejectUnknownFieldsBeforeQuerying() {
+        // When & Then
+        IllegalArgumentException exception = assertThrows(IllegalArgumentException.class,
+                () -> userService.findUserFields(UserFilter.all(), "name,nameTokens"));
+        assertEquals("Campo desconocido en fields: nameTokens", exception.getMessage());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void exportUsers_ShouldStreamAndDetachEveryUser() {
+        // Given
+        User secondUser = new User("Ana García", "ana.garcia@email.com", MembershipType.BASIC);
+        secondUser.setId(2L);
+        when(userRepository.streamAllForExport()).thenReturn(Stream.of(testUser, secondUser));
+        List<User> exported = new java.util.ArrayList<>();
+
+        // When
+        long count = userService.exportUsers(exported::add);
+
+        // Then
+        assertEquals(2L, count);
+        assertEquals(List.of(testUser, secondUser), exported);
+        verify(entityManager).detach(testUser);
+        verify(entityManager).detach(secondUser);
     }
 
     @Test
@@ -299,13 +741,118 @@ class UserServiceTest {
     }
 
     @Test
-    void getUserStats_ShouldReturnCorrectStats() {
+    void getLoanEligibility_ShouldUseProjectionAndMembershipLimits() {
+        // Given
+        when(userRepository.findSummaryById(1L)).thenReturn(Optional.of(UserSummary.from(testUser)));
+
+        // When
+        UserValidation result = userService.getLoanEligibility(1L);
+        userService.getLoanEligibility(1L);
+
+        // Then
+        assertTrue(result.isCanBorrow());
+        assertEquals(MembershipType.PREMIUM.getMaxBooks(), result.getMaxBooksAllowed());
+        assertEquals(MembershipType.PREMIUM.getLoanDurationDays(), result.getLoanDurationDays());
+        verify(userRepository, times(1)).findSummaryById(1L);
+        verify(userRepository, never()).findById(any());
+    }
+
+    @Test
+    void getLoanEligibility_ShouldThrowException_WhenUserNotExists() {
+        // Given
+        when(userRepository.findSummaryById(99L)).thenReturn(Optional.empty());
+
+        // When & Then
+        assertThrows(UserNotFoundException.class, () -> userService.getLoanEligibility(99L));
+    }
+
+    @Test
+    void getMaxBooksAllowed_ShouldMatchMembershipType() {
+        for (MembershipType type : MembershipType.values()) {
+            testUser.setMembershipType(type);
+            assertEquals(type.getMaxBooks(), testUser.getMaxBooksAllowed());
+        }
+        testUser.setMembershipType(null);
+        assertEquals(0, testUser.getMaxBooksAllowed());
+    }
+
+    @Test
+    void findByName_ShouldSearchNormalizedTokensAndKeepRanking() {
+        // Given
+        User otherUser = new User("Juana Pérez", "juana.perez@email.com", MembershipType.BASIC);
+        otherUser.setId(2L);
+        when(userRepository.searchIdsByNameTokens(List.of("juan", "perez"), 50, 50))
+                .thenReturn(List.of(2L, 1L));
+        when(userRepository.findSummariesByIdIn(List.of(2L, 1L)))
+                .thenReturn(List.of(UserSummary.from(testUser), UserSummary.from(otherUser)));
+
+        // When
+        List<UserSummary> result = userService.findByName("JUAN Pérez", 1, 50);
+
+        // Then
+        assertEquals(List.of(2L, 1L), result.stream().map(UserSummary::id).toList());
+        verify(userRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void findByName_ShouldNotQuery_WhenNameHasNoTokens() {
+        // When
+        List<UserSummary> result = userService.findByName(" - ", 0, 50);
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void findByName_ShouldRejectOversizedPage() {
+        // When & Then
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.findByName("Juan", 0, UserService.MAX_SEARCH_PAGE_SIZE + 1));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void validateUsers_ShouldResolveBatchAndReportMissingIds() {
         // Given
-        when(userRepository.count()).thenReturn(100L);
-        when(userRepository.countActiveUsers()).thenReturn(85L);
-        when(userRepository.countByMembershipType(MembershipType.BASIC)).thenReturn(30L);
-        when(userRepository.countByMembershipType(MembershipType.PREMIUM)).thenReturn(40L);
-        when(userRepository.countByMembershipType(MembershipType.STUDENT)).thenReturn(30L);
+        User inactiveUser = new User("Ana García", "ana.garcia@email.com", MembershipType.STUDENT);
+        inactiveUser.setId(2L);
+        inactiveUser.setIsActive(false);
+        when(userRepository.findSummariesByIdIn(any()))
+                .thenReturn(List.of(UserSummary.from(testUser), UserSummary.from(inactiveUser)));
+
+        // When
+        BatchValidationResponse result = userService.validateUsers(Arrays.asList(1L, 2L, 3L, 1L));
+
+        // Then
+        assertEquals(2, result.getResults().size());
+        assertTrue(result.getResults().get(1L).isCanBorrow());
+        assertEquals(10, result.getResults().get(1L).getMaxBooksAllowed());
+        assertEquals(30, result.getResults().get(1L).getLoanDurationDays());
+        assertFalse(result.getResults().get(2L).isCanBorrow());
+        assertEquals(List.of(3L), result.getNotFound());
+        verify(userRepository, times(1)).findSummariesByIdIn(any());
+    }
+
+    @Test
+    void validateUsers_ShouldRejectOversizedBatch() {
+        // Given
+        List<Long> ids = new java.util.ArrayList<>();
+        for (long i = 1; i <= UserService.MAX_BATCH_VALIDATION_SIZE + 1; i++) {
+            ids.add(i);
+        }
+
+        // When & Then
+        assertThrows(IllegalArgumentException.class, () -> userService.validateUsers(ids));
+        verify(userRepository, never()).findSummariesByIdIn(any());
+    }
+
+    @Test
+    void getUserStats_ShouldReadInMemoryCounters() {
+        // Given
+        UserService.UserStats stats = new UserService.UserStats(100L, 85L,
+                Map.of(MembershipType.PREMIUM, 100L), Map.of(MembershipType.PREMIUM, 85L));
+        when(userStatsCounters.snapshot()).thenReturn(stats);
 
         // When
         UserService.UserStats result = userService.getUserStats();
@@ -313,8 +860,44 @@ class UserServiceTest {
         // Then
         assertEquals(100L, result.totalUsers);
         assertEquals(85L, result.activeUsers);
-        assertEquals(30L, result.basicUsers);
-        assertEquals(40L, result.premiumUsers);
-        assertEquals(30L, result.studentUsers);
+        assertEquals(0L, result.usersByMembership.get(MembershipType.BASIC));
+        verifyNoInteractions(userRepository);
+    }
+
+    @Test
+    void toggleUserStatus_ShouldRecordStatusChangeInCounters() {
+        // Given
+        testUser.setIsActive(false);
+        when(userRepository.toggleActive(1L, null)).thenReturn(1);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When
+        userService.toggleUserStatus(1L, null);
+
+        // Then
+        verify(userStatsCounters).recordChanged(
+                new UserStatsCounters.State(MembershipType.PREMIUM, true),
+                new UserStatsCounters.State(MembershipType.PREMIUM, false));
+    }
+
+    @Test
+    void deleteUser_ShouldRecordDeletionInCounters() {
+        // Given
+        when(userRepository.findById(1L)).thenReturn(Optional.of(testUser));
+
+        // When
+        userService.deleteUser(1L);
+
+        // Then
+        verify(userStatsCounters).recordDeleted(new UserStatsCounters.State(MembershipType.PREMIUM, true));
+    }
+
+    private static UserSummary summary(MembershipType membershipType) {
+        return new UserSummary(1L, "Juan Pérez", "juan.perez@email.com", membershipType, true);
+    }
+
+    private static DataIntegrityViolationException duplicateEmailViolation() {
+        return new DataIntegrityViolationException("duplicado",
+                new ConstraintViolationException("Duplicate entry", new SQLException(), "users.uk_users_email"));
     }
 }
@@ -0,0 +1,138 @@
+package com.ironlibrary.user_service.service;
+
+import com.ironlibrary.user_service.model.MembershipType;
+import com.ironlibrary.user_service.model.User;
+import com.ironlibrary.user_service.repository.MembershipStatusCount;
+import com.ironlibrary.user_service.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests unitarios para UserStatsCounters
+ */
+@ExtendWith(MockitoExtension.class)
+class UserStatsCountersTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserStatsCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        counters = new UserStatsCounters(userRepository, meterRegistry);
+    }
+
+    @Test
+    void snapshot_ShouldInitializeFromGroupedQuery() {
+        // Given
+        when(userRepository.countByMembershipTypeAndStatus()).thenReturn(Arrays.asList(
+                count(MembershipType.BASIC, true, 25L),
+                count(MembershipType.BASIC, false, 5L),
+                count(MembershipType.PREMIUM, true, 40L),
+                count(MembershipType.STUDENT, true, 20L),
+                count(MembershipType.STUDENT, false, 10L)));
+
+        // When
+        UserService.UserStats result = counters.snapshot();
+        counters.snapshot();
+
+        // Then
+        assertEquals(100L, result.totalUsers);
+        assertEquals(85L, result.activeUsers);
+        assertEquals(30L, result.usersByMembership.get(MembershipType.BASIC));
+        assertEquals(40L, result.usersByMembership.get(MembershipType.PREMIUM));
+        assertEquals(20L, result.activeUsersByMembership.get(MembershipType.STUDENT));
+        verify(userRepository, times(1)).countByMembershipTypeAndStatus();
+    }
+
+    @Test
+    void recordedWrites_ShouldBeReflectedWithoutQueryingAgain() {
+        // Given
+        when(userRepository.countByMembershipTypeAndStatus()).thenReturn(List.of());
+        counters.reconcile();
+        User user = new User("Juan Pérez", "juan.perez@email.com", MembershipType.BASIC);
+
+        // When
+        counters.recordCreated(user);
+        counters.recordChanged(
+                new UserStatsCounters.State(MembershipType.BASIC, true),
+                new UserStatsCounters.State(MembershipType.PREMIUM, true));
+        counters.recordChanged(
+                new UserStatsCounters.State(MembershipType.PREMIUM, true),
+                new UserStatsCounters.State(MembershipType.PREMIUM, false));
+        UserService.UserStats result = counters.snapshot();
+
+        // Then
+        assertEquals(1L, result.totalUsers);
+        assertEquals(0L, result.activeUsers);
+        assertEquals(0L, result.usersByMembership.get(MembershipType.BASIC));
+        assertEquals(1L, result.usersByMembership.get(MembershipType.PREMIUM));
+        verify(userRepository, times(1)).countByMembershipTypeAndStatus();
+    }
+
+    @Test
+    void recordDeleted_ShouldDecrementCounters() {
+        // Given
+        when(userRepository.countByMembershipTypeAndStatus()).thenReturn(List.of(
+                count(MembershipType.STUDENT, true, 2L)));
+        counters.reconcile();
+
+        // When
+        counters.recordDeleted(new UserStatsCounters.State(MembershipType.STUDENT, true));
+
+        // Then
+        UserService.UserStats result = counters.snapshot();
+        assertEquals(1L, result.totalUsers);
+        assertEquals(1L, result.activeUsersByMembership.get(MembershipType.STUDENT));
+    }
+
+    @Test
+    void reconcile_ShouldCorrectAndReportDrift() {
+        // Given
+        when(userRepository.countByMembershipTypeAndStatus())
+                .thenReturn(List.of(count(MembershipType.PREMIUM, true, 10L)))
+                .thenReturn(List.of(count(MembershipType.PREMIUM, true, 12L)));
+        counters.reconcile();
+
+        // When
+        counters.reconcile();
+
+        // Then
+        assertEquals(12L, counters.snapshot().totalUsers);
+        assertEquals(4L, counters.getLastDrift());
+        assertEquals(4.0, meterRegistry.get("users.stats.drift").counter().count());
+        assertEquals(2.0, meterRegistry.get("users.stats.reconciliations").counter().count());
+    }
+
+    private static MembershipStatusCount count(MembershipType type, boolean active, long total) {
+        return new MembershipStatusCount() {
+            @Override
+            public MembershipType getMembershipType() {
+                return type;
+            }
+
+            @Override
+            public Boolean getIsActive() {
+                return active;
+            }
+
+            @Override
+            public long getTotal() {
+                return total;
+            }
+        };
+    }
+}